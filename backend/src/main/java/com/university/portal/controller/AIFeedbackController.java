@@ -1,12 +1,17 @@
 package com.university.portal.controller;
 
 import com.university.portal.entity.AIFeedback;
+import com.university.portal.entity.FeedbackJob;
+import com.university.portal.entity.User;
 import com.university.portal.repository.AIFeedbackRepository;
+import com.university.portal.repository.FeedbackJobRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/ai-feedback")
@@ -14,6 +19,7 @@ import java.util.*;
 public class AIFeedbackController {
 
     private final AIFeedbackRepository aiFeedbackRepository;
+    private final FeedbackJobRepository feedbackJobRepository;
 
     @GetMapping("/submission/{submissionId}")
     public ResponseEntity<?> getBySubmission(@PathVariable Long submissionId) {
@@ -23,26 +29,40 @@ public class AIFeedbackController {
             return ResponseEntity.notFound().build();
         }
 
-        // Parse suggestions from JSON string
-        List<String> suggestions = new ArrayList<>();
-        if (feedback.getSuggestions() != null) {
-            try {
-                String raw = feedback.getSuggestions().replaceAll("[\\[\\]\"]", "");
-                suggestions = Arrays.asList(raw.split(",\\s*"));
-            } catch (Exception e) {
-                suggestions = List.of(feedback.getSuggestions());
-            }
+        return ResponseEntity.ok(toMap(feedback));
+    }
+
+    /** Feedback for every analysed submission of an assignment, for faculty review. */
+    @GetMapping("/assignment/{assignmentId}")
+    public ResponseEntity<?> getByAssignment(@AuthenticationPrincipal User user, @PathVariable Long assignmentId) {
+        if (user == null || user.getRole() == User.Role.STUDENT) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only faculty can view feedback in bulk"));
+        }
+        return ResponseEntity.ok(toMaps(aiFeedbackRepository.findWithSubmissionByAssignmentId(assignmentId)));
+    }
+
+    @GetMapping("/course/{courseId}")
+    public ResponseEntity<?> getByCourse(@AuthenticationPrincipal User user, @PathVariable String courseId) {
+        if (user == null || user.getRole() == User.Role.STUDENT) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only faculty can view feedback in bulk"));
+        }
+        return ResponseEntity.ok(toMaps(aiFeedbackRepository.findWithSubmissionByCourseId(courseId)));
+    }
+
+    @GetMapping("/submission/{submissionId}/job")
+    public ResponseEntity<?> getJob(@PathVariable Long submissionId) {
+        FeedbackJob job = feedbackJobRepository.findBySubmissionId(submissionId).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
         }
 
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("submissionId", submissionId);
-        result.put("grammarScore", feedback.getGrammarScore());
-        result.put("relevanceScore", feedback.getRelevanceScore());
-        result.put("originalityScore", feedback.getOriginalityScore());
-        result.put("overallScore", feedback.getOverallScore());
-        result.put("summary", feedback.getSummary());
-        result.put("suggestions", suggestions);
-
+        result.put("status", job.getStatus().name());
+        result.put("attempts", job.getAttempts());
+        result.put("lastError", job.getLastError());
+        result.put("nextAttemptAt", job.getStatus() == FeedbackJob.Status.PENDING ? job.getNextAttemptAt().toString() : null);
+        result.put("updatedAt", job.getUpdatedAt() != null ? job.getUpdatedAt().toString() : null);
         return ResponseEntity.ok(result);
     }
 
@@ -58,12 +78,35 @@ public class AIFeedbackController {
         feedback.setSummary((String) body.getOrDefault("summary", ""));
 
         Object suggestionsObj = body.get("suggestions");
-        if (suggestionsObj instanceof List) {
-            feedback.setSuggestions(suggestionsObj.toString());
+        if (suggestionsObj instanceof List<?> list) {
+            feedback.setSuggestions(list.stream().map(String::valueOf).collect(Collectors.toList()));
         }
 
         aiFeedbackRepository.save(feedback);
 
         return ResponseEntity.ok(Map.of("message", "Feedback saved", "id", feedback.getId()));
     }
+
+    private static Map<String, Object> toMap(AIFeedback feedback) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("submissionId", feedback.getSubmissionId());
+        result.put("grammarScore", feedback.getGrammarScore());
+        result.put("relevanceScore", feedback.getRelevanceScore());
+        result.put("originalityScore", feedback.getOriginalityScore());
+        result.put("overallScore", feedback.getOverallScore());
+        result.put("summary", feedback.getSummary());
+        result.put("suggestions", feedback.getSuggestions() != null ? feedback.getSuggestions() : List.of());
+        return result;
+    }
+
+    private static List<Map<String, Object>> toMaps(List<Object[]> rows) {
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Map<String, Object> map = toMap((AIFeedback) row[0]);
+            map.put("studentId", row[1]);
+            map.put("assignmentId", row[2]);
+            result.add(map);
+        }
+        return result;
+    }
 }
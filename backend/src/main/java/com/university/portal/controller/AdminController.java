@@ -182,4 +182,131 @@ public class AdminController {
         courseRepository.deleteById(id);
         return ResponseEntity.ok(Map.of("message", "Course deleted successfully"));
     }
+
+    // ── Attendance Maintenance ──────────────────────────
+
+    private final com.university.portal.service.AttendanceService attendanceService;
+    private final com.university.portal.service.AttendanceShortageService attendanceShortageService;
+
+    @PostMapping("/attendance/summary/rebuild")
+    public ResponseEntity<?> rebuildAttendanceSummary() {
+        int rows = attendanceService.rebuildSummaries();
+        return ResponseEntity.ok(Map.of("message", "Attendance summary rebuilt", "rows", rows));
+    }
+
+    @PostMapping("/attendance/migrate-to-bitmap")
+    public ResponseEntity<?> migrateAttendanceToBitmap(@RequestParam(defaultValue = "false") boolean deleteRows) {
+        int sessions = attendanceService.migrateToBitmap(deleteRows);
+        return ResponseEntity.ok(Map.of("message", "Attendance migrated to session bitmaps", "sessions", sessions));
+    }
+
+    @PostMapping("/attendance/shortages/regenerate")
+    public ResponseEntity<?> regenerateAttendanceShortages() {
+        int students = attendanceShortageService.generate();
+        return ResponseEntity.ok(Map.of("message", "Attendance shortage report generated", "students", students));
+    }
+
+    // ── Grade Statistics ────────────────────────────────
+
+    private final com.university.portal.service.GradeStatsService gradeStatsService;
+
+    @PostMapping("/grade-stats/rebuild")
+    public ResponseEntity<?> rebuildGradeStats() {
+        int rows = gradeStatsService.rebuild();
+        return ResponseEntity.ok(Map.of("message", "Grade statistics rebuilt", "rows", rows));
+    }
+
+    // ── Feedback Jobs ───────────────────────────────────
+
+    private final com.university.portal.service.FeedbackWorkerPool feedbackWorkerPool;
+    private final com.university.portal.service.FeedbackJobService feedbackJobService;
+
+    @GetMapping("/feedback-jobs")
+    public ResponseEntity<?> feedbackJobMetrics() {
+        return ResponseEntity.ok(feedbackWorkerPool.metrics());
+    }
+
+    @PostMapping("/feedback-jobs/requeue")
+    public ResponseEntity<?> requeueFeedbackJobs(@RequestParam(required = false) Long assignmentId) {
+        int submissions = feedbackJobService.requeue(assignmentId);
+        return ResponseEntity.ok(Map.of("message", "Feedback jobs queued", "submissions", submissions));
+    }
+
+    @PostMapping("/feedback-jobs/{id}/retry")
+    public ResponseEntity<?> retryFeedbackJob(@PathVariable Long id) {
+        if (!feedbackJobService.retry(id)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Only failed jobs can be retried"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Feedback job re-queued"));
+    }
+
+    // ── Extracted Texts ─────────────────────────────────
+
+    private final com.university.portal.repository.ExtractedTextRepository extractedTextRepository;
+
+    @GetMapping("/extracted-texts")
+    public ResponseEntity<?> extractedTextTotals() {
+        Object[] totals = extractedTextRepository.totals().get(0);
+        return ResponseEntity.ok(Map.of("texts", totals[0], "chars", totals[1], "compressedBytes", totals[2]));
+    }
+
+    // ── Upload Admission ────────────────────────────────
+
+    private final com.university.portal.service.UploadAdmissionControl uploadAdmissionControl;
+
+    @GetMapping("/uploads/admission")
+    public ResponseEntity<?> getUploadAdmissionMetrics() {
+        return ResponseEntity.ok(uploadAdmissionControl.metrics());
+    }
+
+    // ── Academic Terms ──────────────────────────────────
+
+    private final com.university.portal.repository.AcademicTermRepository academicTermRepository;
+    private final com.university.portal.service.TermArchiveService termArchiveService;
+
+    @GetMapping("/terms")
+    public ResponseEntity<?> getAllTerms() {
+        return ResponseEntity.ok(academicTermRepository.findAllByOrderByStartDateDesc());
+    }
+
+    @PostMapping("/terms")
+    public ResponseEntity<?> createTerm(@RequestBody com.university.portal.entity.AcademicTerm term) {
+        if (term.getCode() == null || term.getStartDate() == null || term.getEndDate() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "code, startDate and endDate are required"));
+        }
+        if (term.getEndDate().isBefore(term.getStartDate())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "endDate must not be before startDate"));
+        }
+        if (academicTermRepository.findByCode(term.getCode()).isPresent()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Term code already exists"));
+        }
+        term.setStatus(com.university.portal.entity.AcademicTerm.Status.OPEN);
+        term.setArchivedAt(null);
+        return ResponseEntity.ok(academicTermRepository.save(term));
+    }
+
+    @PutMapping("/terms/{id}/close")
+    public ResponseEntity<?> closeTerm(@PathVariable Long id) {
+        return academicTermRepository.findById(id)
+                .<ResponseEntity<?>>map(term -> {
+                    if (term.getStatus() != com.university.portal.entity.AcademicTerm.Status.OPEN) {
+                        return ResponseEntity.badRequest().body(Map.of("error", "Term is not open"));
+                    }
+                    term.setStatus(com.university.portal.entity.AcademicTerm.Status.CLOSED);
+                    return ResponseEntity.ok(academicTermRepository.save(term));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/terms/{id}/archive")
+    public ResponseEntity<?> archiveTerm(@PathVariable Long id) {
+        return academicTermRepository.findById(id)
+                .<ResponseEntity<?>>map(term -> {
+                    if (term.getStatus() != com.university.portal.entity.AcademicTerm.Status.CLOSED) {
+                        return ResponseEntity.badRequest().body(Map.of("error", "Only closed terms can be archived"));
+                    }
+                    return ResponseEntity.ok(termArchiveService.archiveTerm(term));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
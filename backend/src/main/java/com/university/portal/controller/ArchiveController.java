@@ -0,0 +1,128 @@
+package com.university.portal.controller;
+
+import com.university.portal.entity.ArchivedFile;
+import com.university.portal.entity.FileBlob;
+import com.university.portal.entity.User;
+import com.university.portal.repository.ArchivedFileRepository;
+import com.university.portal.repository.FileBlobRepository;
+import com.university.portal.service.FileDownloadService;
+import com.university.portal.service.TermArchiveService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only access to archived terms. These scan compressed archive files and
+ * are much slower than the live endpoints, except for submitted files, which
+ * are served from the blob store.
+ */
+@RestController
+@RequestMapping("/api/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private static final int MAX_ROWS = 5000;
+
+    private final TermArchiveService termArchiveService;
+    private final ArchivedFileRepository archivedFileRepository;
+    private final FileBlobRepository fileBlobRepository;
+    private final FileDownloadService fileDownloadService;
+
+    @GetMapping("/terms/{termCode}/attendance")
+    public ResponseEntity<?> getAttendance(
+            @PathVariable String termCode,
+            @RequestParam(required = false) String courseId,
+            @RequestParam(required = false) String studentId) {
+        return read(termCode, "attendance", matches("courseId", courseId).and(matches("studentId", studentId)));
+    }
+
+    @GetMapping("/terms/{termCode}/submissions")
+    public ResponseEntity<?> getSubmissions(
+            @PathVariable String termCode,
+            @RequestParam(required = false) String courseId,
+            @RequestParam(required = false) String studentId) {
+        return read(termCode, "submissions", matches("courseId", courseId).and(matches("studentId", studentId)));
+    }
+
+    @GetMapping("/terms/{termCode}/submissions/{submissionId}/files")
+    public ResponseEntity<?> getSubmissionFiles(
+            @AuthenticationPrincipal User user,
+            @PathVariable String termCode,
+            @PathVariable Long submissionId) {
+        List<ArchivedFile> files = archivedFileRepository.findByTermCodeAndSubmissionIdOrderByVersionDesc(termCode,
+                submissionId);
+        if (files.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!canRead(user, files.get(0))) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not allowed to view this submission"));
+        }
+
+        List<Map<String, Object>> result = files.stream().map(f -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("version", f.getVersion());
+            map.put("fileName", f.getFileName());
+            map.put("size", f.getSize());
+            map.put("sha256", f.getBlobDigest());
+            map.put("submittedAt", f.getSubmittedAt() != null ? f.getSubmittedAt().toString() : null);
+            return map;
+        }).collect(Collectors.toList());
+        return ResponseEntity.ok(result);
+    }
+
+    /** Downloads an archived submission's file; the newest kept version unless {@code version} is given. */
+    @RequestMapping(value = "/terms/{termCode}/submissions/{submissionId}/file",
+            method = { RequestMethod.GET, RequestMethod.HEAD })
+    public ResponseEntity<?> downloadSubmissionFile(
+            @AuthenticationPrincipal User user,
+            @PathVariable String termCode,
+            @PathVariable Long submissionId,
+            @RequestParam(required = false) Integer version,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        ArchivedFile file = version != null
+                ? archivedFileRepository.findByTermCodeAndSubmissionIdAndVersion(termCode, submissionId, version)
+                        .orElse(null)
+                : archivedFileRepository.findByTermCodeAndSubmissionIdOrderByVersionDesc(termCode, submissionId)
+                        .stream().findFirst().orElse(null);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!canRead(user, file)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not allowed to download this submission"));
+        }
+
+        FileBlob blob = fileBlobRepository.findByDigest(file.getBlobDigest()).orElse(null);
+        String name = file.getFileName() != null ? file.getFileName() : file.getBlobDigest();
+        if (blob == null || !fileDownloadService.serveBlob(blob, name, request, response)) {
+            return ResponseEntity.status(410).body(Map.of("error", "Submitted file is no longer available"));
+        }
+        return null; // response already written
+    }
+
+    private ResponseEntity<?> read(String termCode, String kind, Predicate<Map<String, Object>> filter) {
+        try {
+            return ResponseEntity.ok(termArchiveService.readArchive(termCode, kind, filter, MAX_ROWS));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "Archive read failed: " + e.getMessage()));
+        }
+    }
+
+    private static boolean canRead(User user, ArchivedFile file) {
+        return user != null && (user.getRole() != User.Role.STUDENT
+                || Objects.equals(file.getStudentId(), user.getStudentId()));
+    }
+
+    private static Predicate<Map<String, Object>> matches(String field, String value) {
+        return row -> value == null || value.equals(row.get(field));
+    }
+}
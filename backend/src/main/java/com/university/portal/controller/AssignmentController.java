@@ -1,20 +1,39 @@
 package com.university.portal.controller;
 
+import com.university.portal.dto.GradeBatchRequest;
+import com.university.portal.dto.GradeBatchResult;
+import com.university.portal.dto.UploadInitRequest;
 import com.university.portal.entity.Assignment;
+import com.university.portal.entity.FileBlob;
 import com.university.portal.entity.Submission;
+import com.university.portal.entity.SubmissionVersion;
+import com.university.portal.entity.UploadSession;
+import com.university.portal.entity.User;
 import com.university.portal.repository.AssignmentRepository;
+import com.university.portal.repository.FileBlobRepository;
 import com.university.portal.repository.SubmissionRepository;
+import com.university.portal.service.ChunkedUploadService;
+import com.university.portal.service.FileDownloadService;
+import com.university.portal.service.GradingService;
+import com.university.portal.service.SimilarityIndex;
+import com.university.portal.service.SubmissionExportService;
+import com.university.portal.service.SubmissionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -23,11 +42,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AssignmentController {
 
+    private static final int MAX_GRADE_BATCH = 1000;
+
     private final AssignmentRepository assignmentRepository;
     private final SubmissionRepository submissionRepository;
-
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    private final SubmissionService submissionService;
+    private final FileDownloadService fileDownloadService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final SubmissionExportService submissionExportService;
+    private final FileBlobRepository fileBlobRepository;
+    private final GradingService gradingService;
+    private final SimilarityIndex similarityIndex;
 
     @GetMapping("/course/{courseId}")
     public ResponseEntity<?> getByCourse(@PathVariable String courseId) {
@@ -54,106 +79,364 @@ public class AssignmentController {
         try {
             Long assId = Long.parseLong(assignmentId);
 
-            // Check deadline
-            Assignment assignment = assignmentRepository.findById(assId).orElse(null);
-            if (assignment != null && assignment.getDueDate() != null) {
-                if (LocalDate.now().isAfter(assignment.getDueDate())) {
-                    return ResponseEntity.badRequest().body(Map.of("error", "Assignment deadline has passed."));
-                }
-            }
-
-            // Save file
-            Path uploadPath = Paths.get(uploadDir);
-            Files.createDirectories(uploadPath);
-            String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename();
-            Path filePath = uploadPath.resolve(fileName);
-            file.transferTo(filePath.toFile());
-
-            // Check for existing submission
-            Optional<Submission> existing = submissionRepository.findByStudentIdAndAssignmentId(studentId, assId);
-            Submission submission;
-
-            if (existing.isPresent()) {
-                // Update existing submission
-                submission = existing.get();
-                submission.setFileUrl(filePath.toString());
-                submission.setFileName(file.getOriginalFilename());
-                submission.setSubmittedAt(java.time.LocalDateTime.now());
-                submission.setStatus(Submission.Status.SUBMITTED); // Reset status if it was GRADED? Or keep it? Let's
-                                                                   // reset to SUBMITTED for re-evaluation.
-            } else {
-                // Create new submission
-                submission = Submission.builder()
-                        .assignmentId(assId)
-                        .studentId(studentId)
-                        .courseId(courseId)
-                        .fileUrl(filePath.toString())
-                        .fileName(file.getOriginalFilename())
-                        .status(Submission.Status.SUBMITTED)
-                        .submittedAt(java.time.LocalDateTime.now())
-                        .build();
+            if (deadlinePassed(assId)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Assignment deadline has passed."));
             }
 
-            submission = submissionRepository.save(submission);
+            Submission submission = submissionService.submit(courseId, assId, studentId,
+                    file.getOriginalFilename(), file.getInputStream());
 
             return ResponseEntity.ok(Map.of(
                     "message", "Assignment uploaded successfully",
                     "submissionId", submission.getId(),
-                    "fileName", file.getOriginalFilename()));
+                    "fileName", file.getOriginalFilename(),
+                    "feedbackStatus", "PENDING"));
+
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "File upload failed: " + e.getMessage()));
+        }
+    }
+
+    // ── Chunked uploads ─────────────────────────────────────
+
+    @PostMapping("/uploads")
+    public ResponseEntity<?> initiateUpload(@RequestBody UploadInitRequest request) {
+        if (request.getAssignmentId() != null && deadlinePassed(request.getAssignmentId())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Assignment deadline has passed."));
+        }
+        try {
+            return ResponseEntity.ok(uploadStatus(chunkedUploadService.initiate(request)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "File upload failed: " + e.getMessage()));
+        }
+    }
 
+    @GetMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> getUpload(@PathVariable String uploadId) {
+        return chunkedUploadService.status(uploadId)
+                .<ResponseEntity<?>>map(session -> ResponseEntity.ok(uploadStatus(session)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/uploads/{uploadId}")
+    public ResponseEntity<?> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestParam("offset") long offset,
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String checksum,
+            HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(uploadStatus(
+                    chunkedUploadService.appendChunk(uploadId, offset, request.getInputStream(),
+                            request.getContentLengthLong(), checksum)));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return uploadConflict(uploadId, e);
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body(Map.of("error", "File upload failed: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/uploads/{uploadId}/commit")
+    public ResponseEntity<?> commitUpload(@PathVariable String uploadId) {
+        Optional<UploadSession> pending = chunkedUploadService.status(uploadId);
+        if (pending.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (pending.get().getStatus() == UploadSession.Status.OPEN && deadlinePassed(pending.get().getAssignmentId())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Assignment deadline has passed."));
+        }
+        try {
+            UploadSession session = chunkedUploadService.commit(uploadId);
+            return ResponseEntity.ok(Map.of(
+                    "message", "Assignment uploaded successfully",
+                    "submissionId", session.getSubmissionId(),
+                    "fileName", session.getFileName() != null ? session.getFileName() : "",
+                    "feedbackStatus", "PENDING"));
+        } catch (IllegalStateException e) {
+            return uploadConflict(uploadId, e);
         } catch (IOException e) {
             return ResponseEntity.internalServerError().body(Map.of("error", "File upload failed: " + e.getMessage()));
         }
     }
 
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<?> getByStudent(@PathVariable String studentId) {
-        List<Submission> submissions = submissionRepository.findByStudentId(studentId);
+    public ResponseEntity<?> getByStudent(
+            @PathVariable String studentId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        try {
+            List<Object[]> rows = submissionRepository.findListingByStudentId(studentId, parseStatus(status),
+                    startOf(from), endOf(to));
+            return ResponseEntity.ok(rows.stream().map(row -> {
+                Submission s = (Submission) row[0];
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("id", s.getId());
+                map.put("assignmentId", s.getAssignmentId());
+                map.put("courseId", s.getCourseId());
+                map.put("fileName", s.getFileName());
+                map.put("status", s.getStatus().name());
+                map.put("score", s.getScore());
+                map.put("submittedAt", s.getSubmittedAt() != null ? s.getSubmittedAt().toString() : null);
+                map.put("assignmentTitle", assignmentTitle(s, (String) row[1]));
+                return map;
+            }).collect(Collectors.toList()));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid filter: " + e.getMessage()));
+        }
+    }
 
-        List<Map<String, Object>> result = submissions.stream().map(s -> {
-            Map<String, Object> map = new LinkedHashMap<>();
-            map.put("id", s.getId());
-            map.put("assignmentId", s.getAssignmentId());
-            map.put("courseId", s.getCourseId());
-            map.put("fileName", s.getFileName());
-            map.put("status", s.getStatus().name());
-            map.put("score", s.getScore());
-            map.put("submittedAt", s.getSubmittedAt() != null ? s.getSubmittedAt().toString() : null);
-
-            // Get assignment title
-            Assignment assignment = assignmentRepository.findById(s.getAssignmentId()).orElse(null);
-            map.put("assignmentTitle",
-                    assignment != null ? assignment.getTitle() : "Assignment #" + s.getAssignmentId());
+    @GetMapping("/course/{courseId}/submissions")
+    public ResponseEntity<?> getSubmissionsByCourse(
+            @PathVariable String courseId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        try {
+            List<Object[]> rows = submissionRepository.findListingByCourseId(courseId, parseStatus(status),
+                    startOf(from), endOf(to));
+            return ResponseEntity.ok(rows.stream().map(row -> {
+                Submission s = (Submission) row[0];
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("id", s.getId());
+                map.put("assignmentId", s.getAssignmentId());
+                map.put("studentId", s.getStudentId());
+                map.put("courseId", s.getCourseId());
+                map.put("fileName", s.getFileName());
+                map.put("status", s.getStatus().name());
+                map.put("score", s.getScore());
+                map.put("submittedAt", s.getSubmittedAt() != null ? s.getSubmittedAt().toString() : null);
+                map.put("assignmentTitle", assignmentTitle(s, (String) row[1]));
+                map.put("version", s.getVersion());
+                return map;
+            }).collect(Collectors.toList()));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid filter: " + e.getMessage()));
+        }
+    }
+
+    @RequestMapping(value = "/submissions/{submissionId}/file", method = { RequestMethod.GET, RequestMethod.HEAD })
+    public ResponseEntity<?> downloadSubmission(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long submissionId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
+        Submission submission = submissionRepository.findById(submissionId).orElse(null);
+        if (submission == null || submission.getFileUrl() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!canRead(user, submission)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not allowed to download this submission"));
+        }
+
+        // Blob-backed files are immutable, so the digest is a strong validator; legacy files fall back to size/mtime
+        String etag = submission.getBlobDigest() != null ? "\"" + submission.getBlobDigest() + "\"" : null;
+        String name = submission.getFileName() != null ? submission.getFileName()
+                : Paths.get(submission.getFileUrl()).getFileName().toString();
+
+        if (!fileDownloadService.serveObject(submission.getFileUrl(), etag, name, request, response)) {
+            return ResponseEntity.status(410).body(Map.of("error", "Submitted file is no longer available"));
+        }
+        return null; // response already written
+    }
+
+    @GetMapping("/submissions/{submissionId}/versions")
+    public ResponseEntity<?> getSubmissionVersions(@AuthenticationPrincipal User user, @PathVariable Long submissionId) {
+        Submission submission = submissionRepository.findById(submissionId).orElse(null);
+        if (submission == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!canRead(user, submission)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not allowed to view this submission"));
+        }
+
+        List<Map<String, Object>> result = submissionService.getVersions(submissionId).stream().map(v -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("version", v.getVersion());
+            map.put("fileName", v.getFileName());
+            map.put("size", v.getSize());
+            map.put("sha256", v.getBlobDigest());
+            map.put("submittedAt", v.getSubmittedAt() != null ? v.getSubmittedAt().toString() : null);
             return map;
         }).collect(Collectors.toList());
-
         return ResponseEntity.ok(result);
     }
 
-    @GetMapping("/course/{courseId}/submissions")
-    public ResponseEntity<?> getSubmissionsByCourse(@PathVariable String courseId) {
-        List<Submission> submissions = submissionRepository.findByCourseId(courseId);
+    @RequestMapping(value = "/submissions/{submissionId}/versions/{version}/file",
+            method = { RequestMethod.GET, RequestMethod.HEAD })
+    public ResponseEntity<?> downloadSubmissionVersion(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long submissionId,
+            @PathVariable int version,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
-        List<Map<String, Object>> result = submissions.stream().map(s -> {
-            Map<String, Object> map = new LinkedHashMap<>();
-            map.put("id", s.getId());
-            map.put("assignmentId", s.getAssignmentId());
-            map.put("studentId", s.getStudentId());
-            map.put("courseId", s.getCourseId());
-            map.put("fileName", s.getFileName());
-            map.put("status", s.getStatus().name());
-            map.put("score", s.getScore());
-            map.put("submittedAt", s.getSubmittedAt() != null ? s.getSubmittedAt().toString() : null);
-
-            // Get assignment title
-            Assignment assignment = assignmentRepository.findById(s.getAssignmentId()).orElse(null);
-            map.put("assignmentTitle",
-                    assignment != null ? assignment.getTitle() : "Assignment #" + s.getAssignmentId());
+        Submission submission = submissionRepository.findById(submissionId).orElse(null);
+        SubmissionVersion submissionVersion = submissionService.getVersion(submissionId, version).orElse(null);
+        if (submission == null || submissionVersion == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!canRead(user, submission)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not allowed to download this submission"));
+        }
+
+        FileBlob blob = fileBlobRepository.findByDigest(submissionVersion.getBlobDigest()).orElse(null);
+        if (blob == null) {
+            return ResponseEntity.status(410).body(Map.of("error", "Submitted file is no longer available"));
+        }
+
+        String name = submissionVersion.getFileName() != null ? submissionVersion.getFileName() : blob.getDigest();
+        if (!fileDownloadService.serveBlob(blob, name, request, response)) {
+            return ResponseEntity.status(410).body(Map.of("error", "Submitted file is no longer available"));
+        }
+        return null; // response already written
+    }
+
+    @GetMapping("/{assignmentId}/submissions/export")
+    public ResponseEntity<?> exportSubmissions(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long assignmentId,
+            HttpServletResponse response) throws IOException {
+
+        if (user == null || user.getRole() == User.Role.STUDENT) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only faculty can export submissions"));
+        }
+        if (!assignmentRepository.existsById(assignmentId)) {
+            return ResponseEntity.notFound().build();
+        }
 
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("assignment-" + assignmentId + "-submissions.zip").build().toString());
+        submissionExportService.exportAssignment(assignmentId, response.getOutputStream());
+        return null; // response already written
+    }
+
+    @GetMapping("/{assignmentId}/similarity")
+    public ResponseEntity<?> similarityReport(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long assignmentId,
+            @RequestParam(defaultValue = "0.5") double threshold,
+            @RequestParam(defaultValue = "5") int limit) {
+
+        if (user == null || user.getRole() == User.Role.STUDENT) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only faculty can view similarity reports"));
+        }
+        if (!assignmentRepository.existsById(assignmentId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Map<Long, List<SimilarityIndex.Match>> report = similarityIndex.report(assignmentId, threshold, limit);
+        Map<Long, String> students = submissionRepository.findAllById(report.keySet()).stream()
+                .collect(Collectors.toMap(Submission::getId, Submission::getStudentId));
+        List<Map<String, Object>> rows = report.entrySet().stream().map(e -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("submissionId", e.getKey());
+            map.put("studentId", students.get(e.getKey()));
+            map.put("matches", e.getValue());
             return map;
         }).collect(Collectors.toList());
 
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("assignmentId", assignmentId);
+        result.put("threshold", threshold);
+        result.put("submissions", rows);
         return ResponseEntity.ok(result);
     }
+
+    @GetMapping("/submissions/{submissionId}/similar")
+    public ResponseEntity<?> similarSubmissions(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long submissionId,
+            @RequestParam(defaultValue = "5") int limit) {
+
+        if (user == null || user.getRole() == User.Role.STUDENT) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only faculty can view similar submissions"));
+        }
+        return ResponseEntity.ok(similarityIndex.mostSimilar(submissionId, limit));
+    }
+
+    @PostMapping("/{assignmentId}/grades")
+    public ResponseEntity<?> gradeSubmissions(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long assignmentId,
+            @RequestBody GradeBatchRequest request) {
+
+        if (user == null || user.getRole() == User.Role.STUDENT) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only faculty can grade submissions"));
+        }
+        if (request.getGrades() == null || request.getGrades().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "grades must not be empty"));
+        }
+        if (request.getGrades().size() > MAX_GRADE_BATCH) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "At most " + MAX_GRADE_BATCH + " grades per request"));
+        }
+        if (!assignmentRepository.existsById(assignmentId)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            GradeBatchResult result = gradingService.gradeBatch(assignmentId, request.getGrades());
+            return ResponseEntity.ok(Map.of(
+                    "updated", result.getUpdated(),
+                    "unchanged", result.getUnchanged(),
+                    "conflicts", result.getConflicts()));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(409).body(Map.of("error",
+                    "A submission changed while grading; reload and resend the batch"));
+        }
+    }
+
+    private static String assignmentTitle(Submission s, String title) {
+        return title != null ? title : "Assignment #" + s.getAssignmentId();
+    }
+
+    private static Submission.Status parseStatus(String status) {
+        return status != null ? Submission.Status.valueOf(status.toUpperCase(Locale.ROOT)) : null;
+    }
+
+    private static LocalDateTime startOf(String date) {
+        return date != null ? LocalDate.parse(date).atStartOfDay() : null;
+    }
+
+    // "to" is inclusive of the whole day
+    private static LocalDateTime endOf(String date) {
+        return date != null ? LocalDate.parse(date).plusDays(1).atStartOfDay() : null;
+    }
+
+    private static boolean canRead(User user, Submission submission) {
+        return user != null && (user.getRole() != User.Role.STUDENT
+                || submission.getStudentId().equals(user.getStudentId()));
+    }
+
+    private boolean deadlinePassed(Long assignmentId) {
+        Assignment assignment = assignmentRepository.findById(assignmentId).orElse(null);
+        return assignment != null && assignment.getDueDate() != null
+                && LocalDate.now().isAfter(assignment.getDueDate());
+    }
+
+    private Map<String, Object> uploadStatus(UploadSession session) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("uploadId", session.getUploadId());
+        map.put("status", session.getStatus().name());
+        map.put("offset", session.getReceivedBytes());
+        map.put("size", session.getTotalSize());
+        map.put("chunkSize", chunkedUploadService.getChunkSize());
+        return map;
+    }
+
+    // 409 carries the current offset so the client knows where to resume
+    private ResponseEntity<?> uploadConflict(String uploadId, IllegalStateException e) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", e.getMessage());
+        chunkedUploadService.status(uploadId).ifPresent(session -> body.put("offset", session.getReceivedBytes()));
+        return ResponseEntity.status(409).body(body);
+    }
 }
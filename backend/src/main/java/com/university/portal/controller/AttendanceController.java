@@ -1,14 +1,20 @@
 package com.university.portal.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.university.portal.dto.AttendanceIngestResult;
 import com.university.portal.dto.AttendanceRequest;
 import com.university.portal.entity.Attendance;
-import com.university.portal.entity.User;
-import com.university.portal.repository.AttendanceRepository;
-import com.university.portal.repository.UserRepository;
+import com.university.portal.entity.AttendanceSummary;
+import com.university.portal.service.AttendanceService;
+import com.university.portal.service.AttendanceShortageService;
+import com.university.portal.service.TermArchiveService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -18,41 +24,31 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AttendanceController {
 
-    private final AttendanceRepository attendanceRepository;
-    private final UserRepository userRepository;
+    // MySQL DATE range, used to open up a one-sided export range
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
+    private final AttendanceService attendanceService;
+    private final AttendanceShortageService attendanceShortageService;
+    private final TermArchiveService termArchiveService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<?> markAttendance(@RequestBody AttendanceRequest request) {
-        LocalDate date = LocalDate.parse(request.getDate());
-
-        List<Attendance> records = request.getRecords().stream().map(r -> {
-            // Resolve student name
-            String studentName = "";
-            User student = userRepository.findByStudentId(r.getStudentId()).orElse(null);
-            if (student != null)
-                studentName = student.getName();
-
-            return Attendance.builder()
-                    .courseId(request.getCourseId())
-                    .studentId(r.getStudentId())
-                    .studentName(studentName)
-                    .facultyId(request.getFacultyId())
-                    .date(date)
-                    .status(capitalize(r.getStatus()))
-                    .build();
-        }).collect(Collectors.toList());
-
-        attendanceRepository.saveAll(records);
+        AttendanceIngestResult result = attendanceService.markAttendance(request);
 
         return ResponseEntity.ok(Map.of(
                 "message", "Attendance saved successfully",
-                "count", records.size()));
+                "count", result.getCount(),
+                "inserted", result.getInserted(),
+                "updated", result.getUpdated(),
+                "unchanged", result.getUnchanged()));
     }
 
     @GetMapping("/course/{courseId}/date/{date}")
     public ResponseEntity<?> getByDate(@PathVariable String courseId, @PathVariable String date) {
         LocalDate localDate = LocalDate.parse(date);
-        List<Attendance> records = attendanceRepository.findByCourseIdAndDate(courseId, localDate);
+        List<Attendance> records = attendanceService.findByCourseIdAndDate(courseId, localDate);
 
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("courseId", courseId);
@@ -74,10 +70,14 @@ public class AttendanceController {
         List<Attendance> records;
 
         if (from != null && to != null) {
-            records = attendanceRepository.findByCourseIdAndDateBetween(courseId, LocalDate.parse(from),
+            records = attendanceService.findByCourseIdAndDateBetween(courseId, LocalDate.parse(from),
                     LocalDate.parse(to));
         } else {
-            records = attendanceRepository.findByCourseId(courseId);
+            // Without an explicit range, only the current term is read when terms are defined
+            records = termArchiveService.currentTerm()
+                    .map(term -> attendanceService.findByCourseIdAndDateBetween(courseId, term.getStartDate(),
+                            term.getEndDate()))
+                    .orElseGet(() -> attendanceService.findByCourseId(courseId));
         }
 
         // Group by date
@@ -101,29 +101,108 @@ public class AttendanceController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Streams the course report as NDJSON (default) or CSV, one line per student
+     * per date in date order, without materializing the history in memory.
+     */
+    @GetMapping("/course/{courseId}/export")
+    public void exportReport(
+            @PathVariable String courseId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            HttpServletResponse response) throws IOException {
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        LocalDate fromDate = from != null ? LocalDate.parse(from) : null;
+        LocalDate toDate = to != null ? LocalDate.parse(to) : null;
+        // A single bound is open-ended on the other side; the cursors only filter when both are set
+        if (fromDate != null || toDate != null) {
+            fromDate = fromDate != null ? fromDate : EARLIEST_DATE;
+            toDate = toDate != null ? toDate : LATEST_DATE;
+        }
+
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"attendance-" + courseId + (csv ? ".csv" : ".ndjson") + "\"");
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        if (csv) {
+            out.write("courseId,date,studentId,name,status\n");
+        }
+
+        attendanceService.streamCourseAttendance(courseId, fromDate, toDate, r -> {
+            try {
+                String name = r.getStudentName() != null ? r.getStudentName() : "";
+                if (csv) {
+                    out.write(csvField(r.getCourseId()) + "," + r.getDate() + "," + csvField(r.getStudentId()) + ","
+                            + csvField(name) + "," + csvField(r.getStatus()) + "\n");
+                } else {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("courseId", r.getCourseId());
+                    line.put("date", r.getDate().toString());
+                    line.put("studentId", r.getStudentId());
+                    line.put("name", name);
+                    line.put("status", r.getStatus());
+                    out.write(objectMapper.writeValueAsString(line));
+                    out.write('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        out.flush();
+    }
+
+    @GetMapping("/shortages")
+    public ResponseEntity<?> getShortages(@RequestParam(required = false) String courseId) {
+        return ResponseEntity.ok(attendanceShortageService.latestReport(courseId));
+    }
+
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<?> getByStudent(@PathVariable String studentId) {
-        List<Attendance> records = attendanceRepository.findByStudentId(studentId);
+    public ResponseEntity<?> getByStudent(
+            @PathVariable String studentId,
+            @RequestParam(defaultValue = "false") boolean includeRecords) {
+        List<AttendanceSummary> summaries = attendanceService.getStudentSummaries(studentId);
 
-        long total = records.size();
-        long present = records.stream().filter(r -> "Present".equalsIgnoreCase(r.getStatus())).count();
+        long total = summaries.stream().mapToLong(AttendanceSummary::getTotalClasses).sum();
+        long present = summaries.stream().mapToLong(AttendanceSummary::getPresentCount).sum();
         double percentage = total > 0 ? Math.round((double) present / total * 100) : 0;
 
-        return ResponseEntity.ok(Map.of(
-                "studentId", studentId,
-                "totalClasses", total,
-                "present", present,
-                "absent", total - present,
-                "percentage", percentage,
-                "records", records.stream().map(r -> Map.of(
-                        "courseId", r.getCourseId(),
-                        "date", r.getDate().toString(),
-                        "status", r.getStatus())).collect(Collectors.toList())));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("studentId", studentId);
+        result.put("totalClasses", total);
+        result.put("present", present);
+        result.put("absent", total - present);
+        result.put("percentage", percentage);
+        result.put("courses", summaries.stream().map(s -> Map.of(
+                "courseId", s.getCourseId(),
+                "totalClasses", s.getTotalClasses(),
+                "present", s.getPresentCount(),
+                "absent", s.getAbsentCount(),
+                "percentage", s.getTotalClasses() > 0
+                        ? Math.round((double) s.getPresentCount() / s.getTotalClasses() * 100)
+                        : 0L)).collect(Collectors.toList()));
+
+        // Full history is opt-in; the summary above is served from attendance_summary
+        if (includeRecords) {
+            List<Attendance> records = attendanceService.findByStudentId(studentId);
+            result.put("records", records.stream().map(r -> Map.of(
+                    "courseId", r.getCourseId(),
+                    "date", r.getDate().toString(),
+                    "status", r.getStatus())).collect(Collectors.toList()));
+        }
+
+        return ResponseEntity.ok(result);
     }
 
-    private String capitalize(String str) {
-        if (str == null || str.isBlank())
-            return str;
-        return str.substring(0, 1).toUpperCase() + str.substring(1).toLowerCase();
+    private static String csvField(String value) {
+        if (value == null)
+            return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0)
+            return value;
+        return "\"" + value.replace("\"", "\"\"") + "\"";
     }
 }
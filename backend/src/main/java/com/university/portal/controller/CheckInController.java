@@ -0,0 +1,67 @@
+package com.university.portal.controller;
+
+import com.university.portal.dto.CheckInWindowRequest;
+import com.university.portal.entity.User;
+import com.university.portal.service.CheckInService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/attendance/checkin")
+@RequiredArgsConstructor
+public class CheckInController {
+
+    private final CheckInService checkInService;
+
+    @PostMapping("/open")
+    public ResponseEntity<?> openWindow(@AuthenticationPrincipal User user, @RequestBody CheckInWindowRequest request) {
+        if (user == null || user.getRole() == User.Role.STUDENT) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only faculty can open a check-in window"));
+        }
+        if (request.getCourseId() == null || request.getCourseId().isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "courseId is required"));
+        }
+
+        LocalDate date = request.getDate() != null ? LocalDate.parse(request.getDate()) : LocalDate.now();
+        int minutes = request.getDurationMinutes() != null ? request.getDurationMinutes() : 10;
+        String facultyId = request.getFacultyId() != null ? request.getFacultyId() : String.valueOf(user.getId());
+
+        return ResponseEntity.ok(checkInService.open(request.getCourseId(), date, facultyId, minutes));
+    }
+
+    @PostMapping("/{courseId}")
+    public ResponseEntity<?> checkIn(@AuthenticationPrincipal User user, @PathVariable String courseId) {
+        if (user == null || user.getStudentId() == null) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only students can check in"));
+        }
+
+        return switch (checkInService.checkIn(courseId, user.getStudentId())) {
+            case ACCEPTED -> ResponseEntity.ok(Map.of("message", "Checked in", "studentId", user.getStudentId()));
+            case DUPLICATE -> ResponseEntity.ok(Map.of("message", "Already checked in", "studentId", user.getStudentId()));
+            case NOT_ENROLLED -> ResponseEntity.status(403).body(Map.of("error", "You are not enrolled in this course"));
+            case NO_WINDOW -> ResponseEntity.status(409).body(Map.of("error", "No open check-in window for this course"));
+        };
+    }
+
+    @PostMapping("/{courseId}/close")
+    public ResponseEntity<?> closeWindow(@AuthenticationPrincipal User user, @PathVariable String courseId) {
+        if (user == null || user.getRole() == User.Role.STUDENT) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only faculty can close a check-in window"));
+        }
+        return checkInService.close(courseId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{courseId}")
+    public ResponseEntity<?> getWindow(@PathVariable String courseId) {
+        return checkInService.status(courseId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,7 +1,9 @@
 package com.university.portal.controller;
 
+import com.university.portal.dto.SessionCount;
 import com.university.portal.entity.*;
 import com.university.portal.repository.*;
+import com.university.portal.service.AttendanceService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,8 +18,8 @@ import java.util.stream.Collectors;
 public class DashboardController {
 
     private final SubmissionRepository submissionRepository;
-    private final AttendanceRepository attendanceRepository;
     private final CourseRepository courseRepository;
+    private final AttendanceService attendanceService;
 
     @GetMapping("/student/{studentId}")
     public ResponseEntity<?> studentDashboard(@PathVariable String studentId) {
@@ -35,9 +37,9 @@ public class DashboardController {
                 .orElse(0);
 
         // Attendance summary
-        List<Attendance> attendance = attendanceRepository.findByStudentId(studentId);
-        long totalClasses = attendance.size();
-        long presentCount = attendance.stream().filter(a -> "Present".equalsIgnoreCase(a.getStatus())).count();
+        List<AttendanceSummary> attendance = attendanceService.getStudentSummaries(studentId);
+        long totalClasses = attendance.stream().mapToLong(AttendanceSummary::getTotalClasses).sum();
+        long presentCount = attendance.stream().mapToLong(AttendanceSummary::getPresentCount).sum();
         double attendancePercent = totalClasses > 0 ? Math.round((double) presentCount / totalClasses * 100) : 0;
 
         Map<String, Object> result = new LinkedHashMap<>();
@@ -64,48 +66,41 @@ public class DashboardController {
         // Get courses taught by this faculty
         List<Course> courses = fId != null ? courseRepository.findByFacultyId(fId) : courseRepository.findAll();
 
+        List<String> courseIds = courses.stream().map(Course::getCourseId).collect(Collectors.toList());
+
+        // Fixed number of grouped queries regardless of how many courses the faculty teaches
+        Map<String, Long> rosterSizes = new HashMap<>();
+        if (!courseIds.isEmpty()) {
+            for (Object[] row : courseRepository.countStudentsByCourseIds(courseIds)) {
+                rosterSizes.put((String) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        Map<String, SessionCount> today = attendanceService.countSessions(courseIds, LocalDate.now());
+
         List<Map<String, Object>> courseData = courses.stream().map(c -> {
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("courseId", c.getCourseId());
             map.put("courseName", c.getName());
-            map.put("students", c.getStudents() != null ? c.getStudents().size() : 0);
+            map.put("students", rosterSizes.getOrDefault(c.getCourseId(), 0L));
 
             // Today's attendance
-            List<Attendance> todayAtt = attendanceRepository.findByCourseIdAndDate(c.getCourseId(), LocalDate.now());
-            if (!todayAtt.isEmpty()) {
-                long present = todayAtt.stream().filter(a -> "Present".equalsIgnoreCase(a.getStatus())).count();
-                map.put("todayAttendance", present);
-            } else {
-                map.put("todayAttendance", null);
-            }
+            SessionCount todayAtt = today.get(c.getCourseId());
+            map.put("todayAttendance", todayAtt != null && todayAtt.getTotal() > 0 ? todayAtt.getPresent() : null);
             return map;
         }).collect(Collectors.toList());
 
-        // Recent attendance across all courses
-        final List<Map<String, Object>> recent = new ArrayList<>();
-        for (Course c : courses) {
-            List<Attendance> all = attendanceRepository.findByCourseId(c.getCourseId());
-            Map<LocalDate, List<Attendance>> grouped = all.stream().collect(Collectors.groupingBy(Attendance::getDate));
-            grouped.entrySet().stream()
-                    .sorted(Map.Entry.<LocalDate, List<Attendance>>comparingByKey().reversed())
-                    .limit(3)
-                    .forEach(entry -> {
-                        long present = entry.getValue().stream().filter(a -> "Present".equalsIgnoreCase(a.getStatus()))
-                                .count();
-                        recent.add(Map.of(
-                                "date", entry.getKey().toString(),
-                                "course", c.getCourseId(),
-                                "present", present,
-                                "total", entry.getValue().size()));
-                    });
-        }
-
-        // Sort by date descending and limit
-        recent.sort((a, b) -> String.valueOf(b.get("date")).compareTo(String.valueOf(a.get("date"))));
-        List<Map<String, Object>> recentLimited = recent.size() > 10 ? recent.subList(0, 10) : recent;
+        // Recent attendance across all courses: latest 3 sessions per course, newest first
+        List<Map<String, Object>> recent = attendanceService.findRecentSessions(courseIds, 3).stream()
+                .limit(10)
+                .map(session -> Map.<String, Object>of(
+                        "date", session.getDate().toString(),
+                        "course", session.getCourseId(),
+                        "present", session.getPresent(),
+                        "total", session.getTotal()))
+                .collect(Collectors.toList());
 
         return ResponseEntity.ok(Map.of(
                 "courses", courseData,
-                "recentAttendance", recentLimited));
+                "recentAttendance", recent));
     }
 }
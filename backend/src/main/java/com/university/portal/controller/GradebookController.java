@@ -0,0 +1,64 @@
+package com.university.portal.controller;
+
+import com.university.portal.entity.Assignment;
+import com.university.portal.entity.GradeStats;
+import com.university.portal.repository.AssignmentRepository;
+import com.university.portal.service.GradeStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/gradebook")
+@RequiredArgsConstructor
+public class GradebookController {
+
+    private final GradeStatsService gradeStatsService;
+    private final AssignmentRepository assignmentRepository;
+
+    @GetMapping("/course/{courseId}")
+    public ResponseEntity<?> courseStats(@PathVariable String courseId, @RequestParam(required = false) Integer score) {
+        List<GradeStats> rows = gradeStatsService.findByCourse(courseId);
+        GradeStats course = rows.stream()
+                .filter(r -> r.getAssignmentId() == GradeStats.COURSE_WIDE)
+                .findFirst()
+                .orElseGet(() -> empty(courseId, GradeStats.COURSE_WIDE));
+
+        Map<String, Object> result = withRank(course, score);
+        result.put("assignments", rows.stream()
+                .filter(r -> r.getAssignmentId() != GradeStats.COURSE_WIDE)
+                .map(GradeStatsService::describe)
+                .collect(Collectors.toList()));
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/assignment/{assignmentId}")
+    public ResponseEntity<?> assignmentStats(@PathVariable Long assignmentId,
+            @RequestParam(required = false) Integer score) {
+        Assignment assignment = assignmentRepository.findById(assignmentId).orElse(null);
+        if (assignment == null) {
+            return ResponseEntity.notFound().build();
+        }
+        GradeStats stats = gradeStatsService.find(assignment.getCourseId(), assignmentId)
+                .orElseGet(() -> empty(assignment.getCourseId(), assignmentId));
+        Map<String, Object> result = withRank(stats, score);
+        result.put("assignmentTitle", assignment.getTitle());
+        return ResponseEntity.ok(result);
+    }
+
+    private static Map<String, Object> withRank(GradeStats stats, Integer score) {
+        Map<String, Object> result = GradeStatsService.describe(stats);
+        if (score != null) {
+            result.put("score", score);
+            result.put("percentileRank", Math.round(GradeStatsService.percentileRank(stats, score) * 10) / 10.0);
+        }
+        return result;
+    }
+
+    private static GradeStats empty(String courseId, Long assignmentId) {
+        return GradeStats.builder().courseId(courseId).assignmentId(assignmentId).build();
+    }
+}
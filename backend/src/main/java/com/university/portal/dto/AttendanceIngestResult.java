@@ -0,0 +1,16 @@
+package com.university.portal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AttendanceIngestResult {
+    private int inserted;
+    private int updated;
+    private int unchanged;
+
+    public int getCount() {
+        return inserted + updated + unchanged;
+    }
+}
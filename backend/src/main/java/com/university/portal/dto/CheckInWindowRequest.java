@@ -0,0 +1,11 @@
+package com.university.portal.dto;
+
+import lombok.Data;
+
+@Data
+public class CheckInWindowRequest {
+    private String courseId;
+    private String date; // defaults to today
+    private String facultyId;
+    private Integer durationMinutes; // defaults to 10
+}
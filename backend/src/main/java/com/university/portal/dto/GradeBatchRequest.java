@@ -0,0 +1,16 @@
+package com.university.portal.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class GradeBatchRequest {
+    private List<GradeItem> grades;
+
+    @Data
+    public static class GradeItem {
+        private Long submissionId;
+        private Integer score;
+        private Long version; // version the grader saw; omit to overwrite unconditionally
+    }
+}
@@ -0,0 +1,21 @@
+package com.university.portal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class GradeBatchResult {
+    private int updated;
+    private int unchanged;
+    private List<Conflict> conflicts;
+
+    @Data
+    @AllArgsConstructor
+    public static class Conflict {
+        private Long submissionId;
+        private String reason; // "not_found", "duplicate", "invalid_score" or "stale"
+        private Long currentVersion;
+    }
+}
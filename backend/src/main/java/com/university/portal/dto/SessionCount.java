@@ -0,0 +1,16 @@
+package com.university.portal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/** Present/total counts for one course session, as computed by the database. */
+@Data
+@AllArgsConstructor
+public class SessionCount {
+    private String courseId;
+    private LocalDate date;
+    private long present;
+    private long total;
+}
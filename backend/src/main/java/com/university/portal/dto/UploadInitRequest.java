@@ -0,0 +1,12 @@
+package com.university.portal.dto;
+
+import lombok.Data;
+
+@Data
+public class UploadInitRequest {
+    private String courseId;
+    private Long assignmentId;
+    private String studentId;
+    private String fileName;
+    private Long size; // total bytes the client will send
+}
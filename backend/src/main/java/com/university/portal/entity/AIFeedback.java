@@ -3,6 +3,8 @@ package com.university.portal.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.List;
+
 @Entity
 @Table(name = "ai_feedback")
 @Data
@@ -33,6 +35,7 @@ public class AIFeedback {
     @Column(length = 2000)
     private String summary;
 
-    @Column(length = 3000)
-    private String suggestions; // stored as JSON string
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(columnDefinition = "JSON")
+    private List<String> suggestions; // JSON array
 }
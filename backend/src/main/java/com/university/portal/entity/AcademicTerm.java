@@ -0,0 +1,42 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "academic_terms")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AcademicTerm {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String code; // e.g. "2026-SPRING"
+
+    private String name;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Status status = Status.OPEN;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    public enum Status {
+        OPEN, CLOSED, ARCHIVED
+    }
+}
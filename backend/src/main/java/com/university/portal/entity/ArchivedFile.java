@@ -0,0 +1,51 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A submitted file kept after its term was archived. It takes over the
+ * {@link FileBlob} reference the submission version held, so the content
+ * outlives the hot submission rows.
+ */
+@Entity
+@Table(name = "archived_files", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_archived_files_submission_version", columnNames = { "submission_id", "version" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "term_code", nullable = false)
+    private String termCode;
+
+    @Column(name = "submission_id", nullable = false)
+    private Long submissionId;
+
+    @Column(name = "student_id")
+    private String studentId;
+
+    @Column(nullable = false)
+    private int version;
+
+    @Column(name = "blob_digest", nullable = false, length = 64)
+    private String blobDigest;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    private long size;
+
+    @Column(name = "submitted_at")
+    private LocalDateTime submittedAt;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+}
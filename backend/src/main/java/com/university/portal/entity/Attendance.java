@@ -5,7 +5,11 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "attendance")
+@Table(name = "attendance", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_course_student_date", columnNames = { "course_id", "student_id", "date" })
+}, indexes = {
+        @Index(name = "idx_attendance_course_date", columnList = "course_id, date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,33 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Stable bit position of a student within a course's attendance bitmaps.
+ * Slots are append-only so existing session bitmaps stay valid as the roster grows.
+ */
+@Entity
+@Table(name = "attendance_roster_slots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_roster_slots_course_student", columnNames = { "course_id", "student_id" }),
+        @UniqueConstraint(name = "uk_roster_slots_course_slot", columnNames = { "course_id", "slot" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceRosterSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+
+    @Column(nullable = false)
+    private int slot;
+}
@@ -0,0 +1,53 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+
+/**
+ * One class session in bitmap storage mode. Bit {@code i} of each bitmap
+ * refers to the student holding roster slot {@code i} for the course
+ * (see {@link AttendanceRosterSlot}). Bitmaps written by the current code are
+ * {@code BitmapCodec} encoded ({@code bitmapFormat} 1); rows from before that
+ * hold plain {@link java.util.BitSet#toByteArray()} bytes (format 0) and are
+ * re-encoded the next time the session is written.
+ */
+@Entity
+@Table(name = "attendance_sessions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_sessions_course_date", columnNames = { "course_id", "session_date" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(name = "session_date", nullable = false)
+    private LocalDate sessionDate;
+
+    @Column(name = "faculty_id")
+    private String facultyId;
+
+    // Sized for the plain form of a full roster (MAX_SLOTS bits) plus the encoding tag
+    @Column(name = "marked_bitmap", nullable = false, length = 8193)
+    private byte[] markedBitmap; // students recorded in this session
+
+    @Column(name = "present_bitmap", nullable = false, length = 8193)
+    private byte[] presentBitmap; // subset of marked students who were present
+
+    @Column(name = "bitmap_format", nullable = false)
+    private int bitmapFormat;
+
+    @Column(name = "marked_count", nullable = false)
+    private int markedCount;
+
+    @Column(name = "present_count", nullable = false)
+    private int presentCount;
+}
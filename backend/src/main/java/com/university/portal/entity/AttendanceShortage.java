@@ -0,0 +1,44 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "attendance_shortages", indexes = {
+        @Index(name = "idx_attendance_shortages_generated_course", columnList = "generated_at, course_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceShortage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+
+    @Column(name = "student_name")
+    private String studentName;
+
+    @Column(name = "total_classes", nullable = false)
+    private int totalClasses;
+
+    @Column(name = "present_count", nullable = false)
+    private int presentCount;
+
+    @Column(nullable = false)
+    private double percentage;
+
+    @Column(nullable = false)
+    private double threshold;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt; // identifies the report run
+}
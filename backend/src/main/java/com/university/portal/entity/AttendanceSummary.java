@@ -0,0 +1,37 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "attendance_summary", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_summary_student_course", columnNames = { "student_id", "course_id" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(name = "total_classes", nullable = false)
+    @Builder.Default
+    private int totalClasses = 0;
+
+    @Column(name = "present_count", nullable = false)
+    @Builder.Default
+    private int presentCount = 0;
+
+    @Column(name = "absent_count", nullable = false)
+    @Builder.Default
+    private int absentCount = 0;
+}
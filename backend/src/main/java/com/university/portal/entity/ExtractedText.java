@@ -0,0 +1,49 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Normalised plain text of a {@link FileBlob}, extracted once per digest and
+ * stored deflated in the storage backend. Rows whose blob has been swept are
+ * removed by the sweep in {@code ExtractedTextService}.
+ */
+@Entity
+@Table(name = "extracted_texts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_extracted_texts_digest", columnNames = { "digest" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExtractedText {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String digest; // FileBlob the text was extracted from
+
+    @Column(name = "format_version", nullable = false)
+    private int formatVersion;
+
+    @Column(name = "storage_path", nullable = false, length = 512)
+    private String storagePath;
+
+    @Column(name = "char_count", nullable = false)
+    private long charCount;
+
+    @Column(name = "word_count", nullable = false)
+    private long wordCount;
+
+    @Column(name = "compressed_size", nullable = false)
+    private long compressedSize;
+
+    @Column(nullable = false)
+    private boolean truncated; // the source was longer than feedback.text.store-max-chars
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
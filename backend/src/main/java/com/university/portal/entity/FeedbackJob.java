@@ -0,0 +1,64 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Durable request to (re)generate the AI feedback of a submission. There is at
+ * most one row per submission: a re-upload resets it to PENDING for the new
+ * file. Workers claim PENDING rows whose {@code nextAttemptAt} has passed and
+ * hold them as RUNNING under a lease until they finish.
+ */
+@Entity
+@Table(name = "feedback_jobs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_feedback_jobs_submission", columnNames = { "submission_id" })
+}, indexes = {
+        @Index(name = "idx_feedback_jobs_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FeedbackJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "submission_id", nullable = false)
+    private Long submissionId;
+
+    @Column(name = "blob_digest", length = 64)
+    private String blobDigest; // file to analyse; null for legacy submissions
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_by", length = 64)
+    private String lockedBy;
+
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Status {
+        PENDING, RUNNING, DONE, FAILED
+    }
+}
@@ -0,0 +1,47 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressed upload stored once per distinct SHA-256 digest.
+ * {@code refCount} is the number of submissions pointing at it; blobs that
+ * drop to zero are removed by the periodic sweep in {@code BlobStore}.
+ */
+@Entity
+@Table(name = "file_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String digest; // hex SHA-256
+
+    @Column(nullable = false)
+    private long size;
+
+    private Long crc32; // lets ZIP exports store the file without a pre-pass
+
+    @Column(name = "storage_path", nullable = false, length = 512)
+    private String storagePath;
+
+    // null: raw and not yet considered for compression, "identity": kept raw, "gzip": stored compressed
+    @Column(length = 16)
+    private String encoding;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,44 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "grade_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_grade_stats_course_assignment", columnNames = { "course_id", "assignment_id" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GradeStats {
+
+    /** assignment_id of the row that aggregates every assignment of a course */
+    public static final long COURSE_WIDE = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(name = "assignment_id", nullable = false)
+    private Long assignmentId;
+
+    @Column(name = "score_count", nullable = false)
+    private int count;
+
+    @Column(name = "score_sum", nullable = false)
+    private long sum;
+
+    @Column(name = "score_sum_squares", nullable = false)
+    private long sumSquares;
+
+    @Column(nullable = false, length = 404)
+    private byte[] histogram; // 101 big-endian int counts, one per score 0..100
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,61 @@
+package com.university.portal.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores a list of strings as a JSON array. Rows written before suggestions were
+ * stored as JSON hold {@code List.toString()} output ("[a, b]"); those are read
+ * by splitting on ", " as the old reader did, and come back as JSON the next
+ * time the row is saved.
+ */
+@Converter
+public class StringListJsonConverter implements AttributeConverter<List<String>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(List<String> values) {
+        if (values == null)
+            return null;
+        try {
+            return MAPPER.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    @Override
+    public List<String> convertToEntityAttribute(String column) {
+        if (column == null || column.isBlank())
+            return new ArrayList<>();
+        try {
+            return MAPPER.readValue(column, STRING_LIST);
+        } catch (JsonProcessingException e) {
+            return legacy(column);
+        }
+    }
+
+    private static List<String> legacy(String column) {
+        String body = column.strip();
+        if (body.startsWith("[") && body.endsWith("]"))
+            body = body.substring(1, body.length() - 1);
+        List<String> values = new ArrayList<>();
+        if (body.isBlank())
+            return values;
+        int start = 0;
+        for (int comma; (comma = body.indexOf(", ", start)) >= 0; start = comma + 2) {
+            values.add(body.substring(start, comma));
+        }
+        values.add(body.substring(start));
+        return values;
+    }
+}
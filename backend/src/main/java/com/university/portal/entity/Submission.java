@@ -5,7 +5,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "submissions")
+@Table(name = "submissions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_submissions_student_assignment", columnNames = { "student_id", "assignment_id" })
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +33,9 @@ public class Submission {
     @Column(name = "file_name")
     private String fileName;
 
+    @Column(name = "blob_digest", length = 64)
+    private String blobDigest; // FileBlob holding the current file
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     @Builder.Default
@@ -42,6 +47,11 @@ public class Submission {
     @Builder.Default
     private LocalDateTime submittedAt = LocalDateTime.now();
 
+    @Version
+    @Column(nullable = false)
+    @Builder.Default
+    private Long version = 0L; // bumped on every update; graders send it back to detect concurrent changes
+
     public enum Status {
         PENDING, SUBMITTED, EVALUATED
     }
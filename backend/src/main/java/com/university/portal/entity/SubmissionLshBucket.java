@@ -0,0 +1,33 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One LSH band of a submission's signature. Submissions sharing a bucket key
+ * within an assignment are candidate near-duplicates.
+ */
+@Entity
+@Table(name = "submission_lsh_buckets", indexes = {
+        @Index(name = "idx_submission_lsh_buckets_assignment_key", columnList = "assignment_id, bucket_key"),
+        @Index(name = "idx_submission_lsh_buckets_submission", columnList = "submission_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubmissionLshBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "assignment_id", nullable = false)
+    private Long assignmentId;
+
+    @Column(name = "bucket_key", nullable = false)
+    private long bucketKey; // band number in the top 16 bits, band hash below
+
+    @Column(name = "submission_id", nullable = false)
+    private Long submissionId;
+}
@@ -0,0 +1,41 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/** MinHash signature of a submission's text, used for near-duplicate detection within an assignment. */
+@Entity
+@Table(name = "submission_signatures", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_submission_signatures_submission", columnNames = { "submission_id" })
+}, indexes = {
+        @Index(name = "idx_submission_signatures_assignment", columnList = "assignment_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubmissionSignature {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "submission_id", nullable = false)
+    private Long submissionId;
+
+    @Column(name = "assignment_id", nullable = false)
+    private Long assignmentId;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+
+    @Column(name = "blob_digest", length = 64)
+    private String blobDigest;
+
+    @Column(nullable = false, length = 512)
+    private byte[] signature; // 128 big-endian int minimums
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,41 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One uploaded file of a submission. Each version holds a reference on its
+ * {@link FileBlob}; the highest version is the file the submission points at.
+ */
+@Entity
+@Table(name = "submission_versions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_submission_versions_submission_version", columnNames = { "submission_id", "version" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubmissionVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "submission_id", nullable = false)
+    private Long submissionId;
+
+    @Column(nullable = false)
+    private int version;
+
+    @Column(name = "blob_digest", nullable = false, length = 64)
+    private String blobDigest;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    private long size;
+
+    @Column(name = "submitted_at")
+    private LocalDateTime submittedAt;
+}
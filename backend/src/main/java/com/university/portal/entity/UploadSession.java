@@ -0,0 +1,75 @@
+package com.university.portal.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A resumable, chunked upload in progress. Chunks are appended to
+ * {@code partPath} in order; {@code receivedBytes} is the committed length,
+ * which is also the offset the next chunk must start at. With a storage
+ * backend that assembles multipart uploads, {@code partPath} is the staging
+ * object key instead and each chunk is one part of {@code multipartId}.
+ */
+@Entity
+@Table(name = "upload_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "upload_id", nullable = false, unique = true, length = 36)
+    private String uploadId;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(name = "assignment_id", nullable = false)
+    private Long assignmentId;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "total_size", nullable = false)
+    private long totalSize;
+
+    @Column(name = "received_bytes", nullable = false)
+    private long receivedBytes;
+
+    @Column(name = "part_path", nullable = false, length = 512)
+    private String partPath;
+
+    @Column(name = "multipart_id", length = 1024)
+    private String multipartId;
+
+    @Convert(converter = StringListJsonConverter.class)
+    @Column(name = "part_etags", columnDefinition = "JSON")
+    private List<String> partEtags; // entity tag of each stored part, in part order
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Status status = Status.OPEN;
+
+    @Column(name = "submission_id")
+    private Long submissionId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Status {
+        OPEN, COMMITTED
+    }
+}
@@ -2,8 +2,30 @@ package com.university.portal.repository;
 
 import com.university.portal.entity.AIFeedback;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AIFeedbackRepository extends JpaRepository<AIFeedback, Long> {
     Optional<AIFeedback> findBySubmissionId(Long submissionId);
+
+    List<AIFeedback> findBySubmissionIdIn(Collection<Long> submissionIds);
+
+    /** Feedback with its submission's student and assignment ids, one row per analysed submission. */
+    @Query("SELECT f, s.studentId, s.assignmentId FROM AIFeedback f JOIN Submission s ON s.id = f.submissionId "
+            + "WHERE s.assignmentId = :assignmentId ORDER BY s.studentId")
+    List<Object[]> findWithSubmissionByAssignmentId(@Param("assignmentId") Long assignmentId);
+
+    @Query("SELECT f, s.studentId, s.assignmentId FROM AIFeedback f JOIN Submission s ON s.id = f.submissionId "
+            + "WHERE s.courseId = :courseId ORDER BY s.assignmentId, s.studentId")
+    List<Object[]> findWithSubmissionByCourseId(@Param("courseId") String courseId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AIFeedback f WHERE f.submissionId IN :submissionIds")
+    int deleteBySubmissionIdIn(@Param("submissionIds") Collection<Long> submissionIds);
 }
@@ -0,0 +1,17 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.AcademicTerm;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface AcademicTermRepository extends JpaRepository<AcademicTerm, Long> {
+    Optional<AcademicTerm> findByCode(String code);
+
+    List<AcademicTerm> findByStatus(AcademicTerm.Status status);
+
+    List<AcademicTerm> findAllByOrderByStartDateDesc();
+
+    Optional<AcademicTerm> findFirstByStartDateLessThanEqualAndEndDateGreaterThanEqual(LocalDate start, LocalDate end);
+}
@@ -0,0 +1,12 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.ArchivedFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedFileRepository extends JpaRepository<ArchivedFile, Long> {
+    List<ArchivedFile> findByTermCodeAndSubmissionIdOrderByVersionDesc(String termCode, Long submissionId);
+
+    Optional<ArchivedFile> findByTermCodeAndSubmissionIdAndVersion(String termCode, Long submissionId, int version);
+}
@@ -1,16 +1,93 @@
 package com.university.portal.repository;
 
 import com.university.portal.entity.Attendance;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     List<Attendance> findByCourseIdAndDate(String courseId, LocalDate date);
 
+    @Query("SELECT a.id FROM Attendance a WHERE a.courseId = :courseId AND a.date = :date")
+    List<Long> findIdsByCourseIdAndDate(@Param("courseId") String courseId, @Param("date") LocalDate date);
+
+    // Locks the rows by primary key only, so concurrent sessions never hold gap locks on (course_id, date)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Attendance a WHERE a.id IN :ids")
+    List<Attendance> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Attendance> findForUpdateByCourseIdAndStudentIdAndDate(String courseId, String studentId, LocalDate date);
+
+    // A plain (consistent) read: inside a transaction it sees the transaction's own inserts but not rows
+    // other sessions committed after its snapshot was taken
+    @Query("SELECT a.studentId FROM Attendance a WHERE a.courseId = :courseId AND a.date = :date "
+            + "AND a.studentId IN :studentIds")
+    List<String> findVisibleStudentIds(@Param("courseId") String courseId, @Param("date") LocalDate date,
+            @Param("studentIds") Collection<String> studentIds);
+
     List<Attendance> findByCourseIdAndDateBetween(String courseId, LocalDate from, LocalDate to);
 
     List<Attendance> findByStudentId(String studentId);
 
     List<Attendance> findByCourseId(String courseId);
+
+    // Integer.MIN_VALUE fetch size makes MySQL Connector/J stream rows instead of buffering the result set
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Attendance> streamByCourseIdOrderByDateAscStudentIdAsc(String courseId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Attendance> streamByCourseIdAndDateBetweenOrderByDateAscStudentIdAsc(String courseId, LocalDate from,
+            LocalDate to);
+
+    /** Rows of [courseId, present, total] for the given date. */
+    @Query("SELECT a.courseId, SUM(CASE WHEN LOWER(a.status) = 'present' THEN 1 ELSE 0 END), COUNT(a) "
+            + "FROM Attendance a WHERE a.courseId IN :courseIds AND a.date = :date GROUP BY a.courseId")
+    List<Object[]> countByCourseIdInAndDate(@Param("courseIds") Collection<String> courseIds,
+            @Param("date") LocalDate date);
+
+    /** Rows of [courseId, date, present, total] for the latest {@code perCourse} dates of each course. */
+    @Query(value = "SELECT course_id, date, present, total FROM ("
+            + " SELECT course_id, date,"
+            + " SUM(CASE WHEN LOWER(status) = 'present' THEN 1 ELSE 0 END) AS present, COUNT(*) AS total,"
+            + " ROW_NUMBER() OVER (PARTITION BY course_id ORDER BY date DESC) AS rn"
+            + " FROM attendance WHERE course_id IN (:courseIds) GROUP BY course_id, date) t"
+            + " WHERE rn <= :perCourse", nativeQuery = true)
+    List<Object[]> findRecentSessionCounts(@Param("courseIds") Collection<String> courseIds,
+            @Param("perCourse") int perCourse);
+
+    @Query("SELECT DISTINCT a.courseId FROM Attendance a")
+    List<String> findDistinctCourseIds();
+
+    @Query("SELECT DISTINCT a.courseId FROM Attendance a WHERE a.date BETWEEN :from AND :to")
+    List<String> findDistinctCourseIdsByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Attendance a WHERE a.date BETWEEN :from AND :to")
+    int deleteByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /** Rows of [studentId, courseId, total, present] used to rebuild attendance_summary. */
+    @Query("SELECT a.studentId, a.courseId, COUNT(a), "
+            + "SUM(CASE WHEN LOWER(a.status) = 'present' THEN 1 ELSE 0 END) "
+            + "FROM Attendance a GROUP BY a.studentId, a.courseId")
+    List<Object[]> countByStudentAndCourse();
 }
@@ -0,0 +1,20 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.AttendanceRosterSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AttendanceRosterSlotRepository extends JpaRepository<AttendanceRosterSlot, Long> {
+    List<AttendanceRosterSlot> findByCourseId(String courseId);
+
+    List<AttendanceRosterSlot> findByStudentId(String studentId);
+
+    List<AttendanceRosterSlot> findByCourseIdAndStudentIdIn(String courseId, Collection<String> studentIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<AttendanceRosterSlot> findTopByCourseIdOrderBySlotDesc(String courseId);
+}
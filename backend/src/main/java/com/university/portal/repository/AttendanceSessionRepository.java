@@ -0,0 +1,69 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.AttendanceSession;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface AttendanceSessionRepository extends JpaRepository<AttendanceSession, Long> {
+    Optional<AttendanceSession> findByCourseIdAndSessionDate(String courseId, LocalDate sessionDate);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<AttendanceSession> findForUpdateByCourseIdAndSessionDate(String courseId, LocalDate sessionDate);
+
+    boolean existsByCourseIdAndSessionDate(String courseId, LocalDate sessionDate);
+
+    List<AttendanceSession> findByCourseIdAndSessionDateBetween(String courseId, LocalDate from, LocalDate to);
+
+    List<AttendanceSession> findByCourseId(String courseId);
+
+    List<AttendanceSession> findByCourseIdIn(Collection<String> courseIds);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<AttendanceSession> streamByCourseIdOrderBySessionDateAsc(String courseId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<AttendanceSession> streamByCourseIdAndSessionDateBetweenOrderBySessionDateAsc(String courseId,
+            LocalDate from, LocalDate to);
+
+    /** Rows of [courseId, present, total] for the given date. */
+    @Query("SELECT s.courseId, s.presentCount, s.markedCount FROM AttendanceSession s "
+            + "WHERE s.courseId IN :courseIds AND s.sessionDate = :date")
+    List<Object[]> countByCourseIdInAndSessionDate(@Param("courseIds") Collection<String> courseIds,
+            @Param("date") LocalDate date);
+
+    /** Rows of [courseId, date, present, total] for the latest {@code perCourse} sessions of each course. */
+    @Query(value = "SELECT course_id, session_date, present_count, marked_count FROM ("
+            + " SELECT course_id, session_date, present_count, marked_count,"
+            + " ROW_NUMBER() OVER (PARTITION BY course_id ORDER BY session_date DESC) AS rn"
+            + " FROM attendance_sessions WHERE course_id IN (:courseIds)) t"
+            + " WHERE rn <= :perCourse", nativeQuery = true)
+    List<Object[]> findRecentSessionCounts(@Param("courseIds") Collection<String> courseIds,
+            @Param("perCourse") int perCourse);
+
+    @Query("SELECT DISTINCT s.courseId FROM AttendanceSession s WHERE s.sessionDate BETWEEN :from AND :to")
+    List<String> findDistinctCourseIdsBySessionDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AttendanceSession s WHERE s.sessionDate BETWEEN :from AND :to")
+    int deleteBySessionDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,24 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.AttendanceShortage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface AttendanceShortageRepository extends JpaRepository<AttendanceShortage, Long> {
+    Optional<AttendanceShortage> findTopByOrderByGeneratedAtDesc();
+
+    List<AttendanceShortage> findByGeneratedAtOrderByCourseIdAscPercentageAsc(LocalDateTime generatedAt);
+
+    List<AttendanceShortage> findByGeneratedAtAndCourseIdOrderByPercentageAsc(LocalDateTime generatedAt, String courseId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AttendanceShortage s WHERE s.generatedAt < :generatedAt")
+    int deleteOlderThan(@Param("generatedAt") LocalDateTime generatedAt);
+}
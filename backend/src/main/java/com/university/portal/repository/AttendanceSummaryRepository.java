@@ -0,0 +1,24 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.AttendanceSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+
+public interface AttendanceSummaryRepository extends JpaRepository<AttendanceSummary, Long> {
+    List<AttendanceSummary> findByStudentId(String studentId);
+
+    List<AttendanceSummary> findByCourseId(String courseId);
+
+    /** Adds the deltas to the (student, course) summary, creating it if it does not exist yet. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO attendance_summary (student_id, course_id, total_classes, present_count, absent_count) "
+            + "VALUES (:studentId, :courseId, :total, :present, :absent) "
+            + "ON DUPLICATE KEY UPDATE total_classes = total_classes + :total, "
+            + "present_count = present_count + :present, "
+            + "absent_count = absent_count + :absent", nativeQuery = true)
+    int addCounts(@Param("studentId") String studentId, @Param("courseId") String courseId,
+            @Param("total") int total, @Param("present") int present, @Param("absent") int absent);
+}
@@ -2,10 +2,28 @@ package com.university.portal.repository;
 
 import com.university.portal.entity.Course;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
 public interface CourseRepository extends JpaRepository<Course, Long> {
     Optional<Course> findByCourseId(String courseId);
     List<Course> findByFacultyId(Long facultyId);
+
+    @Query("SELECT c.courseId FROM Course c")
+    List<String> findAllCourseIds();
+
+    /** Rows of [courseId, name, description], without loading rosters. */
+    @Query("SELECT c.courseId, c.name, c.description FROM Course c")
+    List<Object[]> findTextFields();
+
+    @Query("SELECT s.studentId FROM Course c JOIN c.students s WHERE c.courseId = :courseId AND s.studentId IS NOT NULL")
+    List<String> findStudentIdsByCourseId(@Param("courseId") String courseId);
+
+    /** Rows of [courseId, rosterSize]. */
+    @Query("SELECT c.courseId, COUNT(s) FROM Course c LEFT JOIN c.students s "
+            + "WHERE c.courseId IN :courseIds GROUP BY c.courseId")
+    List<Object[]> countStudentsByCourseIds(@Param("courseIds") Collection<String> courseIds);
 }
@@ -0,0 +1,37 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.ExtractedText;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+import java.util.Optional;
+
+public interface ExtractedTextRepository extends JpaRepository<ExtractedText, Long> {
+    Optional<ExtractedText> findByDigest(String digest);
+
+    /** Records an extraction; a concurrent or older extraction of the same digest is overwritten. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(value = "INSERT INTO extracted_texts (digest, format_version, storage_path, char_count, word_count, "
+            + "compressed_size, truncated, created_at) "
+            + "VALUES (:digest, :formatVersion, :storagePath, :charCount, :wordCount, :compressedSize, :truncated, NOW(6)) "
+            + "ON DUPLICATE KEY UPDATE format_version = :formatVersion, storage_path = :storagePath, "
+            + "char_count = :charCount, word_count = :wordCount, compressed_size = :compressedSize, "
+            + "truncated = :truncated, created_at = NOW(6)", nativeQuery = true)
+    int upsert(@Param("digest") String digest, @Param("formatVersion") int formatVersion,
+            @Param("storagePath") String storagePath, @Param("charCount") long charCount,
+            @Param("wordCount") long wordCount, @Param("compressedSize") long compressedSize,
+            @Param("truncated") boolean truncated);
+
+    /** Texts whose blob no longer exists. */
+    @Query("SELECT t FROM ExtractedText t WHERE NOT EXISTS (SELECT b.id FROM FileBlob b WHERE b.digest = t.digest) "
+            + "ORDER BY t.id")
+    List<ExtractedText> findOrphans(Pageable pageable);
+
+    @Query("SELECT COUNT(t), COALESCE(SUM(t.charCount), 0), COALESCE(SUM(t.compressedSize), 0) FROM ExtractedText t")
+    List<Object[]> totals();
+}
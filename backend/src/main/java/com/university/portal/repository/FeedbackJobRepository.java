@@ -0,0 +1,60 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.FeedbackJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface FeedbackJobRepository extends JpaRepository<FeedbackJob, Long> {
+
+    /** Queues the submission, or resets its existing job to PENDING for the new file. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO feedback_jobs (submission_id, blob_digest, status, attempts, next_attempt_at, created_at, updated_at) "
+            + "VALUES (:submissionId, :blobDigest, 'PENDING', 0, NOW(6), NOW(6), NOW(6)) "
+            + "ON DUPLICATE KEY UPDATE blob_digest = VALUES(blob_digest), status = 'PENDING', attempts = 0, "
+            + "last_error = NULL, next_attempt_at = NOW(6), updated_at = NOW(6)", nativeQuery = true)
+    int enqueue(@Param("submissionId") Long submissionId, @Param("blobDigest") String blobDigest);
+
+    // SKIP LOCKED lets several nodes poll the table without handing out the same job twice
+    @Query(value = "SELECT id FROM feedback_jobs WHERE status = 'PENDING' AND next_attempt_at <= NOW(6) "
+            + "ORDER BY next_attempt_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockClaimable(@Param("limit") int limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FeedbackJob j SET j.status = com.university.portal.entity.FeedbackJob.Status.RUNNING, "
+            + "j.lockedBy = :claim, j.lockedAt = :now, j.updatedAt = :now WHERE j.id = :id")
+    int markRunning(@Param("id") Long id, @Param("claim") String claim, @Param("now") LocalDateTime now);
+
+    /** Finishes a job only if it still holds this claim, i.e. was not re-queued for a newer file while it ran. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FeedbackJob j SET j.status = com.university.portal.entity.FeedbackJob.Status.DONE, "
+            + "j.lastError = NULL, j.lockedBy = NULL, j.updatedAt = :now "
+            + "WHERE j.id = :id AND j.status = com.university.portal.entity.FeedbackJob.Status.RUNNING AND j.lockedBy = :claim")
+    int markDone(@Param("id") Long id, @Param("claim") String claim, @Param("now") LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<FeedbackJob> findForUpdateById(Long id);
+
+    Optional<FeedbackJob> findBySubmissionId(Long submissionId);
+
+    // Locked like lockClaimable: a worker writing its results holds the row, so its lease is not taken mid-write
+    @Query(value = "SELECT id FROM feedback_jobs WHERE status = 'RUNNING' AND locked_at < :cutoff "
+            + "ORDER BY id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockExpired(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT j.status, COUNT(j) FROM FeedbackJob j GROUP BY j.status")
+    List<Object[]> countByStatus();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM FeedbackJob j WHERE j.submissionId IN :submissionIds")
+    int deleteBySubmissionIdIn(@Param("submissionIds") Collection<Long> submissionIds);
+}
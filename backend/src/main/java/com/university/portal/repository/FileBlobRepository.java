@@ -0,0 +1,47 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.FileBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface FileBlobRepository extends JpaRepository<FileBlob, Long> {
+    Optional<FileBlob> findByDigest(String digest);
+
+    List<FileBlob> findByDigestIn(Collection<String> digests);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<FileBlob> findForUpdateByDigest(String digest);
+
+    List<FileBlob> findByRefCountLessThanEqualAndUpdatedAtBefore(int refCount, LocalDateTime before);
+
+    /** Blobs that no current submission points at, i.e. only older versions reference them. */
+    @Query("SELECT b FROM FileBlob b WHERE b.encoding IS NULL AND b.refCount > 0 AND b.updatedAt < :before "
+            + "AND NOT EXISTS (SELECT s.id FROM Submission s WHERE s.blobDigest = b.digest) ORDER BY b.id")
+    List<FileBlob> findCompressionCandidates(@Param("before") LocalDateTime before, Pageable pageable);
+
+    @Query("SELECT COUNT(s) FROM Submission s WHERE s.blobDigest = :digest")
+    long countCurrentReferences(@Param("digest") String digest);
+
+    /** Registers a new blob, or adds a reference if the digest is already stored. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO file_blobs (digest, size, crc32, storage_path, ref_count, created_at, updated_at) "
+            + "VALUES (:digest, :size, :crc32, :storagePath, 1, NOW(6), NOW(6)) "
+            + "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, crc32 = COALESCE(crc32, :crc32), "
+            + "updated_at = NOW(6)", nativeQuery = true)
+    int acquire(@Param("digest") String digest, @Param("size") long size, @Param("crc32") long crc32,
+            @Param("storagePath") String storagePath);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE FileBlob b SET b.refCount = b.refCount - 1, b.updatedAt = CURRENT_TIMESTAMP "
+            + "WHERE b.digest = :digest AND b.refCount > 0")
+    int release(@Param("digest") String digest);
+}
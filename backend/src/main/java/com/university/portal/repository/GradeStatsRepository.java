@@ -0,0 +1,29 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.GradeStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface GradeStatsRepository extends JpaRepository<GradeStats, Long> {
+    Optional<GradeStats> findByCourseIdAndAssignmentId(String courseId, Long assignmentId);
+
+    List<GradeStats> findByCourseIdOrderByAssignmentIdAsc(String courseId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<GradeStats> findByCourseIdAndAssignmentIdIn(String courseId, Collection<Long> assignmentIds);
+
+    /** Creates an empty row for the pair if missing, so concurrent graders lock the same row. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO grade_stats (course_id, assignment_id, score_count, score_sum, score_sum_squares, histogram) "
+            + "VALUES (:courseId, :assignmentId, 0, 0, 0, :histogram) "
+            + "ON DUPLICATE KEY UPDATE id = id", nativeQuery = true)
+    int insertIfAbsent(@Param("courseId") String courseId, @Param("assignmentId") Long assignmentId,
+            @Param("histogram") byte[] histogram);
+}
@@ -0,0 +1,33 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.SubmissionLshBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
+
+public interface SubmissionLshBucketRepository extends JpaRepository<SubmissionLshBucket, Long> {
+
+    // Other submissions sharing at least one band with the given keys, ignoring buckets with more than maxBucketSize members
+    @Query("SELECT DISTINCT b.submissionId FROM SubmissionLshBucket b "
+            + "WHERE b.assignmentId = :assignmentId AND b.submissionId <> :submissionId "
+            + "AND b.bucketKey IN (SELECT c.bucketKey FROM SubmissionLshBucket c WHERE c.assignmentId = :assignmentId "
+            + "AND c.bucketKey IN :keys GROUP BY c.bucketKey HAVING COUNT(c) <= :maxBucketSize)")
+    List<Long> findCandidates(@Param("assignmentId") Long assignmentId, @Param("keys") Collection<Long> keys,
+            @Param("submissionId") Long submissionId, @Param("maxBucketSize") long maxBucketSize);
+
+    // Rows {bucketKey, submissionId} of buckets holding more than one and at most maxBucketSize submissions
+    @Query("SELECT b.bucketKey, b.submissionId FROM SubmissionLshBucket b WHERE b.assignmentId = :assignmentId "
+            + "AND b.bucketKey IN (SELECT c.bucketKey FROM SubmissionLshBucket c WHERE c.assignmentId = :assignmentId "
+            + "GROUP BY c.bucketKey HAVING COUNT(c) > 1 AND COUNT(c) <= :maxBucketSize) ORDER BY b.bucketKey")
+    List<Object[]> findSharedBuckets(@Param("assignmentId") Long assignmentId,
+            @Param("maxBucketSize") long maxBucketSize);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SubmissionLshBucket b WHERE b.submissionId IN :submissionIds")
+    int deleteBySubmissionIdIn(@Param("submissionIds") Collection<Long> submissionIds);
+}
@@ -1,7 +1,15 @@
 package com.university.portal.repository;
 
 import com.university.portal.entity.Submission;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface SubmissionRepository extends JpaRepository<Submission, Long> {
@@ -11,5 +19,50 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
 
     List<Submission> findByAssignmentId(Long assignmentId);
 
+    // Listings: each row is {Submission, assignment title}; null filters are ignored
+    @Query("SELECT s, a.title FROM Submission s LEFT JOIN Assignment a ON a.id = s.assignmentId "
+            + "WHERE s.studentId = :studentId AND (:status IS NULL OR s.status = :status) "
+            + "AND (:from IS NULL OR s.submittedAt >= :from) AND (:to IS NULL OR s.submittedAt < :to) ORDER BY s.id")
+    List<Object[]> findListingByStudentId(@Param("studentId") String studentId,
+            @Param("status") Submission.Status status, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT s, a.title FROM Submission s LEFT JOIN Assignment a ON a.id = s.assignmentId "
+            + "WHERE s.courseId = :courseId AND (:status IS NULL OR s.status = :status) "
+            + "AND (:from IS NULL OR s.submittedAt >= :from) AND (:to IS NULL OR s.submittedAt < :to) ORDER BY s.id")
+    List<Object[]> findListingByCourseId(@Param("courseId") String courseId,
+            @Param("status") Submission.Status status, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
     java.util.Optional<Submission> findByStudentIdAndAssignmentId(String studentId, Long assignmentId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    java.util.Optional<Submission> findForUpdateByStudentIdAndAssignmentId(String studentId, Long assignmentId);
+
+    /**
+     * Creates the (student, assignment) row if it does not exist yet. Relies on
+     * uk_submissions_student_assignment, so concurrent callers converge on one row.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO submissions (assignment_id, student_id, course_id, status, submitted_at, version) "
+            + "VALUES (:assignmentId, :studentId, :courseId, 'SUBMITTED', NOW(6), 0) "
+            + "ON DUPLICATE KEY UPDATE id = id", nativeQuery = true)
+    int insertIfAbsent(@Param("assignmentId") Long assignmentId, @Param("studentId") String studentId,
+            @Param("courseId") String courseId);
+
+    // Rows that would violate the unique key, left over from before it existed
+    @Query("SELECT s.studentId, s.assignmentId FROM Submission s GROUP BY s.studentId, s.assignmentId HAVING COUNT(s) > 1")
+    List<Object[]> findDuplicateKeys();
+
+    List<Submission> findByStudentIdAndAssignmentIdOrderBySubmittedAtDescIdDesc(String studentId, Long assignmentId);
+
+    @Query("SELECT s.fileUrl FROM Submission s WHERE s.fileUrl IN :fileUrls")
+    List<String> findReferencedFileUrls(@Param("fileUrls") Collection<String> fileUrls);
+
+    // Keyset pagination over a term's submissions for archival
+    List<Submission> findBySubmittedAtBetweenAndIdGreaterThanOrderByIdAsc(LocalDateTime from, LocalDateTime to,
+            Long afterId, Pageable pageable);
+
+    // Score histogram rows {courseId, assignmentId, score, count} for rebuilding grade_stats
+    @Query("SELECT s.courseId, s.assignmentId, s.score, COUNT(s) FROM Submission s WHERE s.score IS NOT NULL "
+            + "GROUP BY s.courseId, s.assignmentId, s.score")
+    List<Object[]> countScores();
 }
@@ -0,0 +1,24 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.SubmissionSignature;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface SubmissionSignatureRepository extends JpaRepository<SubmissionSignature, Long> {
+    Optional<SubmissionSignature> findBySubmissionId(Long submissionId);
+
+    List<SubmissionSignature> findBySubmissionIdIn(Collection<Long> submissionIds);
+
+    List<SubmissionSignature> findByAssignmentId(Long assignmentId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SubmissionSignature s WHERE s.submissionId IN :submissionIds")
+    int deleteBySubmissionIdIn(@Param("submissionIds") Collection<Long> submissionIds);
+}
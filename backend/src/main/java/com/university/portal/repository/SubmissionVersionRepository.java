@@ -0,0 +1,17 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.SubmissionVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface SubmissionVersionRepository extends JpaRepository<SubmissionVersion, Long> {
+    List<SubmissionVersion> findBySubmissionIdOrderByVersionDesc(Long submissionId);
+
+    List<SubmissionVersion> findBySubmissionIdIn(Collection<Long> submissionIds);
+
+    Optional<SubmissionVersion> findTopBySubmissionIdOrderByVersionDesc(Long submissionId);
+
+    Optional<SubmissionVersion> findBySubmissionIdAndVersion(Long submissionId, int version);
+}
@@ -0,0 +1,18 @@
+package com.university.portal.repository;
+
+import com.university.portal.entity.UploadSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, Long> {
+    Optional<UploadSession> findByUploadId(String uploadId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<UploadSession> findForUpdateByUploadId(String uploadId);
+
+    List<UploadSession> findByStatusAndUpdatedAtBefore(UploadSession.Status status, LocalDateTime before);
+}
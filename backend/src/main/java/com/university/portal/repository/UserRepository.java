@@ -2,10 +2,13 @@ package com.university.portal.repository;
 
 import com.university.portal.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByStudentId(String studentId);
+    List<User> findByStudentIdIn(Collection<String> studentIds);
     boolean existsByEmail(String email);
 }
@@ -0,0 +1,325 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.Attendance;
+import com.university.portal.entity.AttendanceRosterSlot;
+import com.university.portal.entity.AttendanceSession;
+import com.university.portal.entity.AttendanceSummary;
+import com.university.portal.entity.User;
+import com.university.portal.repository.AttendanceRepository;
+import com.university.portal.repository.AttendanceRosterSlotRepository;
+import com.university.portal.repository.AttendanceSessionRepository;
+import com.university.portal.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Attendance storage with one row per (course, date) session. Presence is kept
+ * as bitmaps indexed by roster slot, compressed by {@link BitmapCodec}, so a
+ * session costs at most a byte per 8 students and present counts are popcounts.
+ * A course can hand out {@link #MAX_SLOTS} roster slots. Reads expand sessions back into
+ * transient {@link Attendance} objects so callers are storage-agnostic.
+ */
+@Service
+@RequiredArgsConstructor
+public class AttendanceBitmapStore {
+
+    /** Roster slots per course; the bitmap columns are sized for this many bits. */
+    public static final int MAX_SLOTS = 65536;
+    private static final int CODEC_FORMAT = 1;
+
+    private final AttendanceSessionRepository sessionRepository;
+    private final AttendanceRosterSlotRepository slotRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Returns studentId -> "Present"/"Absent" for a stored session, empty if none.
+     * The session row stays locked until the caller's transaction ends.
+     */
+    @Transactional
+    public Map<String, String> readStatuses(String courseId, LocalDate date) {
+        Optional<AttendanceSession> session = sessionRepository.findForUpdateByCourseIdAndSessionDate(courseId, date);
+        if (session.isEmpty())
+            return new HashMap<>();
+
+        Map<String, String> statuses = new HashMap<>();
+        Map<Integer, String> students = slotsToStudents(courseId);
+        forEachMarked(session.get(), (slot, present) -> {
+            String studentId = students.get(slot);
+            if (studentId != null)
+                statuses.put(studentId, present ? "Present" : "Absent");
+        });
+        return statuses;
+    }
+
+    /** Merges the given statuses into the session's bitmaps, creating the session if needed. */
+    @Transactional
+    public void writeSession(String courseId, LocalDate date, String facultyId, Map<String, String> statuses) {
+        Map<String, Integer> slots = assignSlots(courseId, statuses.keySet());
+
+        AttendanceSession session = sessionRepository.findForUpdateByCourseIdAndSessionDate(courseId, date)
+                .orElseGet(() -> AttendanceSession.builder()
+                        .courseId(courseId)
+                        .sessionDate(date)
+                        .markedBitmap(new byte[0])
+                        .presentBitmap(new byte[0])
+                        .build());
+
+        BitSet marked = marked(session);
+        BitSet present = present(session);
+        for (Map.Entry<String, String> entry : statuses.entrySet()) {
+            int slot = slots.get(entry.getKey());
+            marked.set(slot);
+            present.set(slot, AttendanceService.isPresent(entry.getValue()));
+        }
+
+        session.setFacultyId(facultyId);
+        session.setMarkedBitmap(BitmapCodec.encode(marked));
+        session.setPresentBitmap(BitmapCodec.encode(present));
+        session.setBitmapFormat(CODEC_FORMAT);
+        session.setMarkedCount(marked.cardinality());
+        session.setPresentCount(present.cardinality());
+        sessionRepository.save(session);
+    }
+
+    public List<Attendance> findByCourseIdAndDate(String courseId, LocalDate date) {
+        return expand(courseId, sessionRepository.findByCourseIdAndSessionDate(courseId, date)
+                .map(List::of).orElse(List.of()));
+    }
+
+    public List<Attendance> findByCourseIdAndDateBetween(String courseId, LocalDate from, LocalDate to) {
+        return expand(courseId, sessionRepository.findByCourseIdAndSessionDateBetween(courseId, from, to));
+    }
+
+    public List<Attendance> findByCourseId(String courseId) {
+        return expand(courseId, sessionRepository.findByCourseId(courseId));
+    }
+
+    public List<Attendance> findByStudentId(String studentId) {
+        Map<String, Integer> slotByCourse = slotRepository.findByStudentId(studentId).stream()
+                .collect(Collectors.toMap(AttendanceRosterSlot::getCourseId, AttendanceRosterSlot::getSlot, (a, b) -> a));
+        if (slotByCourse.isEmpty())
+            return new ArrayList<>();
+
+        String studentName = userRepository.findByStudentId(studentId).map(User::getName).orElse("");
+        List<Attendance> records = new ArrayList<>();
+        for (AttendanceSession session : sessionRepository.findByCourseIdIn(slotByCourse.keySet())) {
+            int slot = slotByCourse.get(session.getCourseId());
+            if (marked(session).get(slot)) {
+                boolean present = present(session).get(slot);
+                records.add(toAttendance(session, studentId, studentName, present));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Streams a course's sessions in date order, expanding one session at a time.
+     * Must be called inside a read-only transaction.
+     */
+    public void streamByCourseId(String courseId, LocalDate from, LocalDate to, Consumer<Attendance> sink) {
+        Map<Integer, String> students = slotsToStudents(courseId);
+        Map<String, String> names = userRepository.findByStudentIdIn(students.values()).stream()
+                .collect(Collectors.toMap(User::getStudentId, User::getName, (a, b) -> a));
+
+        try (Stream<AttendanceSession> sessions = from != null && to != null
+                ? sessionRepository.streamByCourseIdAndSessionDateBetweenOrderBySessionDateAsc(courseId, from, to)
+                : sessionRepository.streamByCourseIdOrderBySessionDateAsc(courseId)) {
+            sessions.forEach(session -> {
+                forEachMarked(session, (slot, present) -> {
+                    String studentId = students.get(slot);
+                    if (studentId != null)
+                        sink.accept(toAttendance(session, studentId, names.getOrDefault(studentId, ""), present));
+                });
+                entityManager.detach(session);
+            });
+        }
+    }
+
+    public List<Object[]> countSessions(Collection<String> courseIds, LocalDate date) {
+        return sessionRepository.countByCourseIdInAndSessionDate(courseIds, date);
+    }
+
+    public List<Object[]> findRecentSessionCounts(Collection<String> courseIds, int perCourse) {
+        return sessionRepository.findRecentSessionCounts(courseIds, perCourse);
+    }
+
+    public List<String> findCourseIdsBetween(LocalDate from, LocalDate to) {
+        return sessionRepository.findDistinctCourseIdsBySessionDateBetween(from, to);
+    }
+
+    public int deleteBetween(LocalDate from, LocalDate to) {
+        return sessionRepository.deleteBySessionDateBetween(from, to);
+    }
+
+    /** Per-(student, course) counts computed by popcount over every stored session. */
+    public List<AttendanceSummary> computeSummaries() {
+        Map<String, List<AttendanceRosterSlot>> slotsByCourse = slotRepository.findAll().stream()
+                .collect(Collectors.groupingBy(AttendanceRosterSlot::getCourseId));
+
+        List<AttendanceSummary> summaries = new ArrayList<>();
+        for (Map.Entry<String, List<AttendanceRosterSlot>> entry : slotsByCourse.entrySet()) {
+            int size = entry.getValue().stream().mapToInt(AttendanceRosterSlot::getSlot).max().orElse(-1) + 1;
+            int[] total = new int[size];
+            int[] present = new int[size];
+            for (AttendanceSession session : sessionRepository.findByCourseId(entry.getKey())) {
+                forEachMarked(session, (slot, isPresent) -> {
+                    if (slot < size) {
+                        total[slot]++;
+                        if (isPresent)
+                            present[slot]++;
+                    }
+                });
+            }
+            for (AttendanceRosterSlot slot : entry.getValue()) {
+                int t = total[slot.getSlot()];
+                if (t == 0)
+                    continue;
+                int p = present[slot.getSlot()];
+                summaries.add(AttendanceSummary.builder()
+                        .studentId(slot.getStudentId())
+                        .courseId(entry.getKey())
+                        .totalClasses(t)
+                        .presentCount(p)
+                        .absentCount(t - p)
+                        .build());
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Converts one course's row-per-student attendance into sessions. Dates that
+     * already have a session are skipped so the migration can be re-run safely;
+     * their rows are kept even with {@code deleteRows}, since the session may not
+     * hold everything they record.
+     */
+    @Transactional
+    public int migrateCourse(String courseId, boolean deleteRows) {
+        List<Attendance> rows = attendanceRepository.findByCourseId(courseId);
+
+        Map<LocalDate, List<Attendance>> byDate = rows.stream()
+                .collect(Collectors.groupingBy(Attendance::getDate, TreeMap::new, Collectors.toList()));
+
+        List<Attendance> migratedRows = new ArrayList<>();
+        int migrated = 0;
+        for (Map.Entry<LocalDate, List<Attendance>> entry : byDate.entrySet()) {
+            if (sessionRepository.existsByCourseIdAndSessionDate(courseId, entry.getKey()))
+                continue;
+
+            Map<String, String> statuses = new LinkedHashMap<>();
+            for (Attendance a : entry.getValue()) {
+                statuses.put(a.getStudentId(), a.getStatus());
+            }
+            writeSession(courseId, entry.getKey(), entry.getValue().get(0).getFacultyId(), statuses);
+            migratedRows.addAll(entry.getValue());
+            migrated++;
+        }
+
+        if (deleteRows && !migratedRows.isEmpty()) {
+            attendanceRepository.deleteAllInBatch(migratedRows);
+        }
+        return migrated;
+    }
+
+    private Map<String, Integer> assignSlots(String courseId, Collection<String> studentIds) {
+        Map<String, Integer> slots = slotRepository.findByCourseIdAndStudentIdIn(courseId, studentIds).stream()
+                .collect(Collectors.toMap(AttendanceRosterSlot::getStudentId, AttendanceRosterSlot::getSlot, (a, b) -> a));
+
+        List<String> missing = studentIds.stream()
+                .filter(id -> !slots.containsKey(id))
+                .sorted()
+                .collect(Collectors.toList());
+        if (missing.isEmpty())
+            return slots;
+
+        int next = slotRepository.findTopByCourseIdOrderBySlotDesc(courseId)
+                .map(s -> s.getSlot() + 1)
+                .orElse(0);
+        if (next + missing.size() > MAX_SLOTS) {
+            throw new IllegalStateException("Course " + courseId + " would exceed " + MAX_SLOTS
+                    + " attendance roster slots; use attendance.storage=rows for it");
+        }
+        List<AttendanceRosterSlot> created = new ArrayList<>();
+        for (String studentId : missing) {
+            created.add(AttendanceRosterSlot.builder()
+                    .courseId(courseId)
+                    .studentId(studentId)
+                    .slot(next)
+                    .build());
+            slots.put(studentId, next++);
+        }
+        slotRepository.saveAll(created);
+        return slots;
+    }
+
+    private List<Attendance> expand(String courseId, List<AttendanceSession> sessions) {
+        if (sessions.isEmpty())
+            return new ArrayList<>();
+
+        Map<Integer, String> students = slotsToStudents(courseId);
+        Map<String, String> names = userRepository.findByStudentIdIn(students.values()).stream()
+                .collect(Collectors.toMap(User::getStudentId, User::getName, (a, b) -> a));
+
+        List<Attendance> records = new ArrayList<>();
+        for (AttendanceSession session : sessions) {
+            forEachMarked(session, (slot, present) -> {
+                String studentId = students.get(slot);
+                if (studentId != null)
+                    records.add(toAttendance(session, studentId, names.getOrDefault(studentId, ""), present));
+            });
+        }
+        return records;
+    }
+
+    private Map<Integer, String> slotsToStudents(String courseId) {
+        return slotRepository.findByCourseId(courseId).stream()
+                .collect(Collectors.toMap(AttendanceRosterSlot::getSlot, AttendanceRosterSlot::getStudentId, (a, b) -> a));
+    }
+
+    private static BitSet marked(AttendanceSession session) {
+        return decode(session, session.getMarkedBitmap());
+    }
+
+    private static BitSet present(AttendanceSession session) {
+        return decode(session, session.getPresentBitmap());
+    }
+
+    private static BitSet decode(AttendanceSession session, byte[] bitmap) {
+        return session.getBitmapFormat() == CODEC_FORMAT ? BitmapCodec.decode(bitmap) : BitSet.valueOf(bitmap);
+    }
+
+    private static void forEachMarked(AttendanceSession session, SlotVisitor visitor) {
+        BitSet marked = marked(session);
+        BitSet present = present(session);
+        for (int i = marked.nextSetBit(0); i >= 0; i = marked.nextSetBit(i + 1)) {
+            visitor.visit(i, present.get(i));
+        }
+    }
+
+    private static Attendance toAttendance(AttendanceSession session, String studentId, String studentName,
+            boolean present) {
+        return Attendance.builder()
+                .courseId(session.getCourseId())
+                .studentId(studentId)
+                .studentName(studentName)
+                .facultyId(session.getFacultyId())
+                .date(session.getSessionDate())
+                .status(present ? "Present" : "Absent")
+                .build();
+    }
+
+    @FunctionalInterface
+    private interface SlotVisitor {
+        void visit(int slot, boolean present);
+    }
+}
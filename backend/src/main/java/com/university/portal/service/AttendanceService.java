@@ -0,0 +1,405 @@
+package com.university.portal.service;
+
+import com.university.portal.dto.AttendanceIngestResult;
+import com.university.portal.dto.AttendanceRequest;
+import com.university.portal.dto.SessionCount;
+import com.university.portal.entity.Attendance;
+import com.university.portal.entity.AttendanceSummary;
+import com.university.portal.entity.User;
+import com.university.portal.repository.AttendanceRepository;
+import com.university.portal.repository.AttendanceSummaryRepository;
+import com.university.portal.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class AttendanceService {
+
+    private final AttendanceRepository attendanceRepository;
+    private final UserRepository userRepository;
+    private final AttendanceSummaryRepository attendanceSummaryRepository;
+    private final AttendanceBitmapStore bitmapStore;
+    private final EntityManager entityManager;
+
+    // Rows per multi-row INSERT; six bind parameters each
+    private static final int INSERT_BATCH = 500;
+
+    // "rows" (one attendance row per student per day) or "bitmap" (one attendance_sessions row per class)
+    @Value("${attendance.storage:rows}")
+    private String storageMode;
+
+    /**
+     * Upserts one session's attendance keyed on (courseId, studentId, date).
+     * Student names are resolved in a single lookup and only new or changed
+     * rows are written, so re-submitting the same day is idempotent, also when
+     * two submissions of the same session run concurrently. The
+     * per-(student, course) summary is adjusted in the same transaction.
+     */
+    @Transactional
+    public AttendanceIngestResult markAttendance(AttendanceRequest request) {
+        String courseId = request.getCourseId();
+        LocalDate date = LocalDate.parse(request.getDate());
+
+        // Last record wins if a student appears twice in the same request
+        Map<String, String> statuses = new LinkedHashMap<>();
+        for (AttendanceRequest.AttendanceRecord r : request.getRecords()) {
+            statuses.put(r.getStudentId(), capitalize(r.getStatus()));
+        }
+
+        // Summary deltas per student: {total, present, absent}
+        Map<String, int[]> deltas = new HashMap<>();
+        AttendanceIngestResult result = isBitmapStorage()
+                ? markSession(courseId, date, request.getFacultyId(), statuses, deltas)
+                : markRows(courseId, date, request.getFacultyId(), statuses, deltas);
+
+        applySummaryDeltas(courseId, deltas);
+        return result;
+    }
+
+    private AttendanceIngestResult markRows(String courseId, LocalDate date, String facultyId,
+            Map<String, String> statuses, Map<String, int[]> deltas) {
+        Map<String, String> names = userRepository.findByStudentIdIn(statuses.keySet()).stream()
+                .collect(Collectors.toMap(User::getStudentId, User::getName, (a, b) -> a));
+
+        // Existing rows for this session, locked by id so a concurrent submission of the same
+        // session waits here instead of diffing against the same snapshot; duplicates left over
+        // from before the unique key are collapsed
+        Map<String, Attendance> existing = new HashMap<>();
+        List<Attendance> duplicates = new ArrayList<>();
+        List<Long> ids = attendanceRepository.findIdsByCourseIdAndDate(courseId, date);
+        for (Attendance a : ids.isEmpty() ? List.<Attendance>of() : attendanceRepository.findAllForUpdateByIdIn(ids)) {
+            if (existing.putIfAbsent(a.getStudentId(), a) != null) {
+                duplicates.add(a);
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            for (Attendance d : duplicates) {
+                addDelta(deltas, d.getStudentId(), d.getStatus(), -1);
+            }
+            attendanceRepository.deleteAllInBatch(duplicates);
+        }
+
+        List<Attendance> toSave = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        int inserted = 0, updated = 0, unchanged = 0;
+
+        for (Map.Entry<String, String> entry : statuses.entrySet()) {
+            Attendance row = existing.get(entry.getKey());
+            if (row == null) {
+                missing.add(entry.getKey());
+            } else if (applyStatus(row, entry.getValue(), names.getOrDefault(entry.getKey(), ""), facultyId, deltas)) {
+                toSave.add(row);
+                updated++;
+            } else {
+                unchanged++;
+            }
+        }
+        attendanceRepository.saveAll(toSave);
+
+        // New rows go in with multi-row INSERT IGNOREs on the unique key, sorted so two requests
+        // cannot deadlock. If fewer rows went in than were sent, another request inserted some of
+        // those students since our snapshot: our consistent read sees our own inserts but not
+        // theirs, which tells the two apart, and the collided rows are locked and diffed instead.
+        Collections.sort(missing);
+        int written = 0;
+        for (int i = 0; i < missing.size(); i += INSERT_BATCH) {
+            written += insertIgnore(courseId, date, facultyId,
+                    missing.subList(i, Math.min(i + INSERT_BATCH, missing.size())), statuses, names);
+        }
+        Set<String> ours = written == missing.size()
+                ? new HashSet<>(missing)
+                : new HashSet<>(attendanceRepository.findVisibleStudentIds(courseId, date, missing));
+        for (String studentId : missing) {
+            String status = statuses.get(studentId);
+            if (ours.contains(studentId)) {
+                addDelta(deltas, studentId, status, 1);
+                inserted++;
+                continue;
+            }
+            Attendance row = attendanceRepository.findForUpdateByCourseIdAndStudentIdAndDate(courseId, studentId, date)
+                    .orElseThrow(() -> new IllegalStateException("Attendance row for " + studentId + " vanished"));
+            if (applyStatus(row, status, names.getOrDefault(studentId, ""), facultyId, deltas)) {
+                attendanceRepository.save(row);
+                updated++;
+            } else {
+                unchanged++;
+            }
+        }
+
+        return new AttendanceIngestResult(inserted, updated, unchanged);
+    }
+
+    /** Inserts the students' rows in one statement, skipping keys that exist; returns the number inserted. */
+    private int insertIgnore(String courseId, LocalDate date, String facultyId, List<String> studentIds,
+            Map<String, String> statuses, Map<String, String> names) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT IGNORE INTO attendance (course_id, student_id, student_name, faculty_id, date, status) VALUES ");
+        for (int i = 0; i < studentIds.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+        }
+        Query insert = entityManager.createNativeQuery(sql.toString());
+        int p = 1;
+        for (String studentId : studentIds) {
+            insert.setParameter(p++, courseId);
+            insert.setParameter(p++, studentId);
+            insert.setParameter(p++, names.getOrDefault(studentId, ""));
+            insert.setParameter(p++, facultyId);
+            insert.setParameter(p++, date);
+            insert.setParameter(p++, statuses.get(studentId));
+        }
+        return insert.executeUpdate();
+    }
+
+    /** Updates an existing row to the submitted values; returns false if nothing changed. */
+    private boolean applyStatus(Attendance row, String status, String studentName, String facultyId,
+            Map<String, int[]> deltas) {
+        if (Objects.equals(row.getStatus(), status)
+                && Objects.equals(row.getStudentName(), studentName)
+                && Objects.equals(row.getFacultyId(), facultyId)) {
+            return false;
+        }
+        if (!Objects.equals(row.getStatus(), status)) {
+            addDelta(deltas, row.getStudentId(), row.getStatus(), -1);
+            addDelta(deltas, row.getStudentId(), status, 1);
+        }
+        row.setStatus(status);
+        row.setStudentName(studentName);
+        row.setFacultyId(facultyId);
+        return true;
+    }
+
+    private AttendanceIngestResult markSession(String courseId, LocalDate date, String facultyId,
+            Map<String, String> statuses, Map<String, int[]> deltas) {
+        Map<String, String> previous = bitmapStore.readStatuses(courseId, date);
+        int inserted = 0, updated = 0, unchanged = 0;
+
+        for (Map.Entry<String, String> entry : statuses.entrySet()) {
+            String studentId = entry.getKey();
+            String status = entry.getValue();
+            String before = previous.get(studentId);
+
+            if (before == null) {
+                addDelta(deltas, studentId, status, 1);
+                inserted++;
+            } else if (isPresent(before) == isPresent(status)) {
+                unchanged++;
+            } else {
+                addDelta(deltas, studentId, before, -1);
+                addDelta(deltas, studentId, status, 1);
+                updated++;
+            }
+        }
+
+        if (inserted > 0 || updated > 0) {
+            bitmapStore.writeSession(courseId, date, facultyId, statuses);
+        }
+        return new AttendanceIngestResult(inserted, updated, unchanged);
+    }
+
+    // ── Readers (dispatch on storage mode) ─────────────
+
+    public List<Attendance> findByCourseIdAndDate(String courseId, LocalDate date) {
+        return isBitmapStorage()
+                ? bitmapStore.findByCourseIdAndDate(courseId, date)
+                : attendanceRepository.findByCourseIdAndDate(courseId, date);
+    }
+
+    public List<Attendance> findByCourseIdAndDateBetween(String courseId, LocalDate from, LocalDate to) {
+        return isBitmapStorage()
+                ? bitmapStore.findByCourseIdAndDateBetween(courseId, from, to)
+                : attendanceRepository.findByCourseIdAndDateBetween(courseId, from, to);
+    }
+
+    public List<Attendance> findByCourseId(String courseId) {
+        return isBitmapStorage()
+                ? bitmapStore.findByCourseId(courseId)
+                : attendanceRepository.findByCourseId(courseId);
+    }
+
+    public List<Attendance> findByStudentId(String studentId) {
+        return isBitmapStorage()
+                ? bitmapStore.findByStudentId(studentId)
+                : attendanceRepository.findByStudentId(studentId);
+    }
+
+    /**
+     * Feeds a course's attendance to {@code sink} in date order straight from a
+     * database cursor. Each row is detached once consumed, so memory stays flat
+     * regardless of how much history the course has.
+     */
+    @Transactional(readOnly = true)
+    public void streamCourseAttendance(String courseId, LocalDate from, LocalDate to, Consumer<Attendance> sink) {
+        if (isBitmapStorage()) {
+            bitmapStore.streamByCourseId(courseId, from, to, sink);
+            return;
+        }
+
+        try (Stream<Attendance> rows = from != null && to != null
+                ? attendanceRepository.streamByCourseIdAndDateBetweenOrderByDateAscStudentIdAsc(courseId, from, to)
+                : attendanceRepository.streamByCourseIdOrderByDateAscStudentIdAsc(courseId)) {
+            rows.forEach(row -> {
+                sink.accept(row);
+                entityManager.detach(row);
+            });
+        }
+    }
+
+    /** Present/total counts per course for one date, computed in a single grouped query. */
+    public Map<String, SessionCount> countSessions(Collection<String> courseIds, LocalDate date) {
+        if (courseIds.isEmpty())
+            return new HashMap<>();
+
+        List<Object[]> rows = isBitmapStorage()
+                ? bitmapStore.countSessions(courseIds, date)
+                : attendanceRepository.countByCourseIdInAndDate(courseIds, date);
+        Map<String, SessionCount> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((String) row[0], new SessionCount((String) row[0], date,
+                    toLong(row[1]), toLong(row[2])));
+        }
+        return counts;
+    }
+
+    /** The latest {@code perCourse} sessions of each course, newest first, in a single query. */
+    public List<SessionCount> findRecentSessions(Collection<String> courseIds, int perCourse) {
+        if (courseIds.isEmpty())
+            return new ArrayList<>();
+
+        List<Object[]> rows = isBitmapStorage()
+                ? bitmapStore.findRecentSessionCounts(courseIds, perCourse)
+                : attendanceRepository.findRecentSessionCounts(courseIds, perCourse);
+        return rows.stream()
+                .map(row -> new SessionCount((String) row[0], toLocalDate(row[1]), toLong(row[2]), toLong(row[3])))
+                .sorted(Comparator.comparing(SessionCount::getDate).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /** Courses with attendance recorded between the two dates (inclusive). */
+    public List<String> findCourseIdsBetween(LocalDate from, LocalDate to) {
+        return isBitmapStorage()
+                ? bitmapStore.findCourseIdsBetween(from, to)
+                : attendanceRepository.findDistinctCourseIdsByDateBetween(from, to);
+    }
+
+    /** Removes attendance between the two dates (inclusive) from hot storage. */
+    public int deleteBetween(LocalDate from, LocalDate to) {
+        return isBitmapStorage()
+                ? bitmapStore.deleteBetween(from, to)
+                : attendanceRepository.deleteByDateBetween(from, to);
+    }
+
+    /**
+     * Converts every course's attendance rows into bitmap sessions, one
+     * transaction per course. Returns the number of sessions created.
+     */
+    public int migrateToBitmap(boolean deleteRows) {
+        int sessions = 0;
+        for (String courseId : attendanceRepository.findDistinctCourseIds()) {
+            sessions += bitmapStore.migrateCourse(courseId, deleteRows);
+        }
+        return sessions;
+    }
+
+    public List<AttendanceSummary> getStudentSummaries(String studentId) {
+        return attendanceSummaryRepository.findByStudentId(studentId);
+    }
+
+    /**
+     * Recomputes attendance_summary from the raw attendance table (or the
+     * session bitmaps in bitmap storage mode).
+     */
+    @Transactional
+    public int rebuildSummaries() {
+        attendanceSummaryRepository.deleteAllInBatch();
+
+        if (isBitmapStorage()) {
+            List<AttendanceSummary> summaries = bitmapStore.computeSummaries();
+            attendanceSummaryRepository.saveAll(summaries);
+            return summaries.size();
+        }
+
+        List<AttendanceSummary> summaries = attendanceRepository.countByStudentAndCourse().stream()
+                .map(row -> {
+                    int total = ((Number) row[2]).intValue();
+                    int present = row[3] != null ? ((Number) row[3]).intValue() : 0;
+                    return AttendanceSummary.builder()
+                            .studentId((String) row[0])
+                            .courseId((String) row[1])
+                            .totalClasses(total)
+                            .presentCount(present)
+                            .absentCount(total - present)
+                            .build();
+                })
+                .collect(Collectors.toList());
+
+        attendanceSummaryRepository.saveAll(summaries);
+        return summaries.size();
+    }
+
+    // Backfills the summary table the first time it is deployed against existing data
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildSummariesIfEmpty() {
+        if (attendanceSummaryRepository.count() == 0) {
+            rebuildSummaries();
+        }
+    }
+
+    private void applySummaryDeltas(String courseId, Map<String, int[]> deltas) {
+        deltas.values().removeIf(d -> d[0] == 0 && d[1] == 0 && d[2] == 0);
+        if (deltas.isEmpty())
+            return;
+
+        // One atomic increment per student, in key order so concurrent sessions of a course lock
+        // summary rows in the same sequence
+        for (Map.Entry<String, int[]> entry : new TreeMap<>(deltas).entrySet()) {
+            int[] d = entry.getValue();
+            attendanceSummaryRepository.addCounts(entry.getKey(), courseId, d[0], d[1], d[2]);
+        }
+    }
+
+    private static void addDelta(Map<String, int[]> deltas, String studentId, String status, int sign) {
+        int[] d = deltas.computeIfAbsent(studentId, k -> new int[3]);
+        d[0] += sign;
+        if (isPresent(status))
+            d[1] += sign;
+        else
+            d[2] += sign;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
+    // Native queries may return DATE columns as java.sql.Date
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date d ? d.toLocalDate() : (LocalDate) value;
+    }
+
+    public boolean isBitmapStorage() {
+        return "bitmap".equalsIgnoreCase(storageMode);
+    }
+
+    public static boolean isPresent(String status) {
+        return "Present".equalsIgnoreCase(status);
+    }
+
+    private String capitalize(String str) {
+        if (str == null || str.isBlank())
+            return str;
+        return str.substring(0, 1).toUpperCase() + str.substring(1).toLowerCase();
+    }
+}
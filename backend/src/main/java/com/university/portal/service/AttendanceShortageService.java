@@ -0,0 +1,120 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.AttendanceShortage;
+import com.university.portal.entity.AttendanceSummary;
+import com.university.portal.entity.User;
+import com.university.portal.repository.AttendanceShortageRepository;
+import com.university.portal.repository.AttendanceSummaryRepository;
+import com.university.portal.repository.CourseRepository;
+import com.university.portal.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-computes, off-peak, every student whose attendance in a course is below
+ * the configured threshold. Each run is stored under its own generatedAt
+ * timestamp and older runs are deleted afterwards, so readers always see a
+ * complete report.
+ */
+@Service
+@RequiredArgsConstructor
+public class AttendanceShortageService {
+
+    private final AttendanceShortageRepository shortageRepository;
+    private final AttendanceSummaryRepository attendanceSummaryRepository;
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+
+    @Value("${attendance.shortage.threshold:75}")
+    private double threshold;
+
+    @Value("${attendance.shortage.parallelism:4}")
+    private int parallelism;
+
+    @Scheduled(cron = "${attendance.shortage.cron:0 0 2 * * *}")
+    public void scheduledGenerate() {
+        generate();
+    }
+
+    public synchronized int generate() {
+        // Microseconds, the precision generated_at is stored with, so two runs in the same second stay distinct
+        LocalDateTime generatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<String> courseIds = courseRepository.findAllCourseIds();
+
+        // Fan out one task per course on a dedicated pool sized to leave DB connections for request traffic
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<AttendanceSummary> below;
+        try {
+            below = pool.submit(() -> courseIds.parallelStream()
+                    .flatMap(courseId -> attendanceSummaryRepository.findByCourseId(courseId).stream())
+                    .filter(s -> s.getTotalClasses() > 0 && percentage(s) < threshold)
+                    .collect(Collectors.toList()))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attendance shortage report interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Attendance shortage report failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        Set<String> studentIds = below.stream().map(AttendanceSummary::getStudentId).collect(Collectors.toSet());
+        Map<String, String> names = userRepository.findByStudentIdIn(studentIds).stream()
+                .collect(Collectors.toMap(User::getStudentId, User::getName, (a, b) -> a));
+
+        List<AttendanceShortage> rows = below.stream().map(s -> AttendanceShortage.builder()
+                .courseId(s.getCourseId())
+                .studentId(s.getStudentId())
+                .studentName(names.getOrDefault(s.getStudentId(), ""))
+                .totalClasses(s.getTotalClasses())
+                .presentCount(s.getPresentCount())
+                .percentage(Math.round(percentage(s) * 10) / 10.0)
+                .threshold(threshold)
+                .generatedAt(generatedAt)
+                .build())
+                .collect(Collectors.toList());
+
+        shortageRepository.saveAll(rows);
+        shortageRepository.deleteOlderThan(generatedAt);
+        return rows.size();
+    }
+
+    /** Latest report, optionally narrowed to one course. */
+    public Map<String, Object> latestReport(String courseId) {
+        Optional<LocalDateTime> generatedAt = shortageRepository.findTopByOrderByGeneratedAtDesc()
+                .map(AttendanceShortage::getGeneratedAt);
+        List<AttendanceShortage> rows = generatedAt.map(at -> courseId != null
+                ? shortageRepository.findByGeneratedAtAndCourseIdOrderByPercentageAsc(at, courseId)
+                : shortageRepository.findByGeneratedAtOrderByCourseIdAscPercentageAsc(at))
+                .orElse(List.of());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", generatedAt.map(LocalDateTime::toString).orElse(null));
+        report.put("threshold", threshold);
+        report.put("students", rows.stream().map(r -> {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("courseId", r.getCourseId());
+            map.put("studentId", r.getStudentId());
+            map.put("name", r.getStudentName());
+            map.put("totalClasses", r.getTotalClasses());
+            map.put("present", r.getPresentCount());
+            map.put("percentage", r.getPercentage());
+            return map;
+        }).collect(Collectors.toList()));
+        return report;
+    }
+
+    private static double percentage(AttendanceSummary s) {
+        return (double) s.getPresentCount() / s.getTotalClasses() * 100;
+    }
+}
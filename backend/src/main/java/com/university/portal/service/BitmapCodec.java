@@ -0,0 +1,88 @@
+package com.university.portal.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+/**
+ * Compact encoding for attendance session bitmaps. Each bitmap is stored with
+ * a one-byte tag followed by whichever body is smaller: the plain
+ * {@link BitSet#toByteArray()} bytes, or run lengths as unsigned varints,
+ * alternating clear and set runs starting with a (possibly empty) clear run.
+ * Long rosters where most students attend, or where only a recent block of
+ * slots is in use, collapse to a few bytes; a scattered bitmap never costs
+ * more than one byte over the plain form.
+ */
+final class BitmapCodec {
+
+    static final byte RAW = 0;
+    static final byte RUNS = 1;
+
+    private BitmapCodec() {
+    }
+
+    static byte[] encode(BitSet bits) {
+        byte[] raw = bits.toByteArray();
+        byte[] runs = runs(bits, raw.length + 1);
+        if (runs != null)
+            return runs;
+
+        byte[] out = new byte[raw.length + 1];
+        out[0] = RAW;
+        System.arraycopy(raw, 0, out, 1, raw.length);
+        return out;
+    }
+
+    static BitSet decode(byte[] data) {
+        if (data.length == 0)
+            return new BitSet();
+        if (data[0] == RAW)
+            return BitSet.valueOf(ByteBuffer.wrap(data, 1, data.length - 1));
+        if (data[0] != RUNS)
+            throw new IllegalArgumentException("Unknown bitmap encoding " + data[0]);
+
+        BitSet bits = new BitSet();
+        int position = 0;
+        boolean set = false;
+        int i = 1;
+        while (i < data.length) {
+            int length = 0;
+            for (int shift = 0;; shift += 7) {
+                byte b = data[i++];
+                length |= (b & 0x7F) << shift;
+                if (b >= 0)
+                    break;
+            }
+            if (set)
+                bits.set(position, position + length);
+            position += length;
+            set = !set;
+        }
+        return bits;
+    }
+
+    /** Run-length form, or null once it would reach {@code limit} bytes. */
+    private static byte[] runs(BitSet bits, int limit) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(RUNS);
+        int position = 0;
+        while (position < bits.length()) {
+            int setStart = bits.nextSetBit(position);
+            int setEnd = bits.nextClearBit(setStart);
+            writeVarint(out, setStart - position);
+            writeVarint(out, setEnd - setStart);
+            if (out.size() >= limit)
+                return null;
+            position = setEnd;
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,280 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.FileBlob;
+import com.university.portal.repository.FileBlobRepository;
+import com.university.portal.storage.StorageBackend;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed store for uploaded files. Content is hashed while it is
+ * staged to local disk once; identical content is kept as a single object under
+ * {@code blobs/ab/cd/<sha256>} in the configured {@link StorageBackend} and
+ * shared by reference count.
+ */
+@Service
+@RequiredArgsConstructor
+public class BlobStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    public static final String GZIP = "gzip";
+    public static final String IDENTITY = "identity";
+
+    private final FileBlobRepository blobRepository;
+    private final StorageBackend storage;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    /** Writes the stream to disk while hashing it and returns the blob, holding one new reference. */
+    @Transactional
+    public FileBlob store(InputStream content) throws IOException {
+        Path tmp = Files.createTempFile(tmpDir(), "upload-", ".part");
+
+        MessageDigest sha256 = sha256();
+        CRC32 crc = new CRC32();
+        long size = 0;
+        try (InputStream in = content; OutputStream out = Files.newOutputStream(tmp)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                sha256.update(buffer, 0, n);
+                crc.update(buffer, 0, n);
+                out.write(buffer, 0, n);
+                size += n;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        return adopt(tmp, HexFormat.of().formatHex(sha256.digest()), crc.getValue(), size);
+    }
+
+    /** Hashes an already written staging file in one sequential pass and adopts it. */
+    @Transactional
+    public FileBlob adopt(Path tmp) throws IOException {
+        MessageDigest sha256 = sha256();
+        CRC32 crc = new CRC32();
+        long size;
+        try (InputStream in = Files.newInputStream(tmp)) {
+            size = hash(in, sha256, crc);
+        }
+        return adopt(tmp, HexFormat.of().formatHex(sha256.digest()), crc.getValue(), size);
+    }
+
+    /**
+     * Takes ownership of an object already in storage, such as a chunked upload
+     * the store assembled itself. It is hashed in one streaming read and copied
+     * to its blob key inside the store; the source is deleted only once the
+     * transaction commits, so a rollback leaves it for a retry.
+     */
+    @Transactional
+    public FileBlob adoptObject(String key) throws IOException {
+        MessageDigest sha256 = sha256();
+        CRC32 crc = new CRC32();
+        long size;
+        try (InputStream in = storage.get(key)) {
+            size = hash(in, sha256, crc);
+        }
+
+        String digest = HexFormat.of().formatHex(sha256.digest());
+        String target = blobKey(digest);
+        blobRepository.acquire(digest, size, crc.getValue(), target);
+        if (!storage.exists(target)) {
+            storage.copy(key, target);
+        }
+        deleteAfterCommit(key);
+        return restoreRaw(blobRepository.findByDigest(digest).orElseThrow(), target);
+    }
+
+    /**
+     * Adopts a copy of a file the store does not own, such as a pre-blob upload
+     * stored under {@code key}. The original is deleted only once the
+     * transaction commits, so a rollback leaves it where it was.
+     */
+    @Transactional
+    public FileBlob adoptCopy(String key, Path source) throws IOException {
+        Path tmp = Files.createTempFile(tmpDir(), "legacy-", ".part");
+        FileBlob blob;
+        try {
+            Files.copy(source, tmp, StandardCopyOption.REPLACE_EXISTING);
+            blob = adopt(tmp);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        deleteAfterCommit(key);
+        return blob;
+    }
+
+    /**
+     * Takes ownership of a fully written temp file whose digest is known. The
+     * reference is registered first so the row lock keeps the sweep from
+     * deleting the target while the file is moved into place.
+     */
+    @Transactional
+    public FileBlob adopt(Path tmp, String digest, long crc32, long size) throws IOException {
+        String key = blobKey(digest);
+        try {
+            blobRepository.acquire(digest, size, crc32, key);
+            if (!storage.exists(key)) {
+                storage.putFile(key, tmp);
+            }
+        } finally {
+            Files.deleteIfExists(tmp); // identical content already stored
+        }
+
+        return restoreRaw(blobRepository.findByDigest(digest).orElseThrow(), key);
+    }
+
+    // Content came back into use: the raw copy just stored under key replaces the compressed one
+    private FileBlob restoreRaw(FileBlob blob, String key) {
+        if (!GZIP.equals(blob.getEncoding()))
+            return blob;
+        deleteAfterCommit(blob.getStoragePath());
+        blob.setStoragePath(key);
+        blob.setEncoding(null);
+        return blobRepository.save(blob);
+    }
+
+    public boolean exists(FileBlob blob) throws IOException {
+        return storage.exists(blob.getStoragePath());
+    }
+
+    /** Opens a blob's content, decompressing it if it is stored gzip-encoded. */
+    public InputStream open(FileBlob blob) throws IOException {
+        InputStream in = storage.get(blob.getStoragePath());
+        return GZIP.equals(blob.getEncoding()) ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+
+    /**
+     * Gzips a blob that only older submission versions still reference. Content
+     * that does not shrink by at least 10% is kept raw and marked so it is not
+     * retried. The row lock serialises this with {@link #adopt}, which restores
+     * a raw copy if the content is uploaded again.
+     */
+    @Transactional
+    public boolean compress(String digest) throws IOException {
+        FileBlob blob = blobRepository.findForUpdateByDigest(digest).orElse(null);
+        if (blob == null || blob.getEncoding() != null || blob.getRefCount() <= 0
+                || blobRepository.countCurrentReferences(digest) > 0) {
+            return false;
+        }
+
+        String raw = blob.getStoragePath();
+        String gz = raw + ".gz";
+        Path tmp = Files.createTempFile(tmpDir(), "compress-", ".gz.part");
+        try {
+            try (InputStream in = storage.get(raw);
+                    OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE)) {
+                in.transferTo(out);
+            }
+
+            if (Files.size(tmp) > blob.getSize() * 0.9) {
+                blob.setEncoding(IDENTITY);
+                blobRepository.save(blob);
+                return false;
+            }
+            storage.putFile(gz, tmp);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        blob.setStoragePath(gz);
+        blob.setEncoding(GZIP);
+        blobRepository.save(blob);
+        deleteAfterCommit(raw);
+        return true;
+    }
+
+    /** Drops one reference; the file is deleted by {@link #sweep()} once nothing points at it. */
+    @Transactional
+    public void release(String digest) {
+        if (digest != null) {
+            blobRepository.release(digest);
+        }
+    }
+
+    /**
+     * Local staging directory. With local storage it sits on the same filesystem
+     * as the blobs, so adopting a file is a rename.
+     */
+    public Path tmpDir() throws IOException {
+        return Files.createDirectories(Paths.get(uploadDir, "tmp"));
+    }
+
+    public static String blobKey(String digest) {
+        return "blobs/" + digest.substring(0, 2) + "/" + digest.substring(2, 4) + "/" + digest;
+    }
+
+    /** Removes blobs that have been unreferenced for longer than the grace period. */
+    @Scheduled(fixedDelayString = "${file.blob-sweep-interval-ms:3600000}")
+    @Transactional
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(10);
+        for (FileBlob candidate : blobRepository.findByRefCountLessThanEqualAndUpdatedAtBefore(0, cutoff)) {
+            blobRepository.findForUpdateByDigest(candidate.getDigest())
+                    .filter(blob -> blob.getRefCount() <= 0)
+                    .ifPresent(blob -> {
+                        try {
+                            storage.delete(blob.getStoragePath());
+                        } catch (IOException e) {
+                            return; // retried on the next sweep
+                        }
+                        blobRepository.delete(blob);
+                    });
+        }
+    }
+
+    // Objects the row no longer points at are only removed once the new key is committed
+    private void deleteAfterCommit(String key) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    storage.delete(key);
+                } catch (IOException ignored) {
+                    // left for manual cleanup; nothing references it
+                }
+            }
+        });
+    }
+
+    private static long hash(InputStream in, MessageDigest sha256, CRC32 crc) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            sha256.update(buffer, 0, n);
+            crc.update(buffer, 0, n);
+            size += n;
+        }
+        return size;
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
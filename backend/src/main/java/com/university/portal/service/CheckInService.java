@@ -0,0 +1,231 @@
+package com.university.portal.service;
+
+import com.university.portal.dto.AttendanceRequest;
+import com.university.portal.entity.Attendance;
+import com.university.portal.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Time-boxed student self check-in. Check-ins are deduplicated per student in
+ * an in-memory buffer per open window and written through
+ * {@link AttendanceService#markAttendance} in batches, either on the periodic
+ * flush or when the window closes. Only students on the course roster, as it
+ * stood when the window opened, can check in. On close, roster students who
+ * neither checked in nor have a record for the day are marked Absent in the
+ * same batches, so the session counts towards everyone's percentage. A window
+ * stays registered until everything it buffered has been written, so a failed
+ * flush is retried.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CheckInService {
+
+    public enum Result {
+        ACCEPTED, DUPLICATE, NOT_ENROLLED, NO_WINDOW
+    }
+
+    private final AttendanceService attendanceService;
+    private final CourseRepository courseRepository;
+
+    @Value("${attendance.checkin.batch-size:500}")
+    private int batchSize;
+
+    // One open window per course
+    private final Map<String, CheckInWindow> windows = new ConcurrentHashMap<>();
+
+    public Map<String, Object> open(String courseId, LocalDate date, String facultyId, int durationMinutes) {
+        // The previous window must be fully written before it is replaced
+        CheckInWindow previous = windows.get(courseId);
+        if (previous != null) {
+            close(previous);
+        }
+        CheckInWindow window = new CheckInWindow(courseId, date, facultyId,
+                Instant.now().plusSeconds(durationMinutes * 60L),
+                new HashSet<>(courseRepository.findStudentIdsByCourseId(courseId)));
+        windows.put(courseId, window);
+        return describe(window);
+    }
+
+    public Result checkIn(String courseId, String studentId) {
+        CheckInWindow window = windows.get(courseId);
+        if (window == null)
+            return Result.NO_WINDOW;
+
+        window.lock.readLock().lock();
+        try {
+            if (window.closed || window.isExpired())
+                return Result.NO_WINDOW;
+            if (!window.roster.contains(studentId))
+                return Result.NOT_ENROLLED;
+            if (!window.seen.add(studentId))
+                return Result.DUPLICATE;
+            window.pending.add(studentId);
+            return Result.ACCEPTED;
+        } finally {
+            window.lock.readLock().unlock();
+        }
+    }
+
+    /** Closes the course's window and flushes whatever is still buffered. */
+    public Optional<Map<String, Object>> close(String courseId) {
+        CheckInWindow window = windows.get(courseId);
+        if (window == null)
+            return Optional.empty();
+        close(window);
+        return Optional.of(describe(window));
+    }
+
+    public Optional<Map<String, Object>> status(String courseId) {
+        return Optional.ofNullable(windows.get(courseId)).map(this::describe);
+    }
+
+    @Scheduled(fixedDelayString = "${attendance.checkin.flush-interval-ms:5000}")
+    public void flushAll() {
+        for (CheckInWindow window : windows.values()) {
+            try {
+                if (window.closed || window.isExpired()) {
+                    close(window);
+                } else {
+                    flush(window);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Flushing check-ins for course {} failed, {} kept for retry",
+                        window.courseId, window.pending.size() + window.absent.size(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        for (CheckInWindow window : windows.values()) {
+            try {
+                close(window);
+            } catch (RuntimeException e) {
+                log.error("Check-ins for course {} could not be saved: {} lost",
+                        window.courseId, window.pending.size() + window.absent.size(), e);
+            }
+        }
+    }
+
+    private void close(CheckInWindow window) {
+        // Write lock waits for in-flight check-ins so none land after the final flush
+        window.lock.writeLock().lock();
+        try {
+            if (!window.closed) {
+                // Students the faculty already marked for the day keep that record
+                Set<String> recorded = attendanceService.findByCourseIdAndDate(window.courseId, window.date).stream()
+                        .map(Attendance::getStudentId)
+                        .collect(Collectors.toSet());
+                window.closed = true;
+                window.roster.stream()
+                        .filter(studentId -> !window.seen.contains(studentId) && !recorded.contains(studentId))
+                        .sorted()
+                        .forEach(window.absent::add);
+            }
+        } finally {
+            window.lock.writeLock().unlock();
+        }
+        flush(window);
+        // Only reached when every buffered check-in was written; otherwise the window stays for the next flush
+        windows.remove(window.courseId, window);
+    }
+
+    private void flush(CheckInWindow window) {
+        synchronized (window) {
+            // Check-ins first, then (only once the window is closed) the absent remainder of the roster
+            Map<String, String> batch = new LinkedHashMap<>();
+            String studentId;
+            while ((studentId = window.pending.poll()) != null || (studentId = window.absent.poll()) != null) {
+                batch.put(studentId, window.seen.contains(studentId) ? "present" : "absent");
+                if (batch.size() >= batchSize) {
+                    write(window, batch);
+                    batch = new LinkedHashMap<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(window, batch);
+            }
+        }
+    }
+
+    private void write(CheckInWindow window, Map<String, String> statuses) {
+        AttendanceRequest request = new AttendanceRequest();
+        request.setCourseId(window.courseId);
+        request.setDate(window.date.toString());
+        request.setFacultyId(window.facultyId);
+        request.setRecords(statuses.entrySet().stream().map(entry -> {
+            AttendanceRequest.AttendanceRecord record = new AttendanceRequest.AttendanceRecord();
+            record.setStudentId(entry.getKey());
+            record.setStatus(entry.getValue());
+            return record;
+        }).collect(Collectors.toList()));
+
+        try {
+            attendanceService.markAttendance(request);
+            statuses.forEach((id, status) -> {
+                if (window.seen.contains(id))
+                    window.flushed++;
+                else
+                    window.markedAbsent++;
+            });
+        } catch (RuntimeException e) {
+            // Keep the batch buffered so the next flush retries it
+            statuses.keySet().forEach(id -> (window.seen.contains(id) ? window.pending : window.absent).add(id));
+            throw e;
+        }
+    }
+
+    private Map<String, Object> describe(CheckInWindow window) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("courseId", window.courseId);
+        map.put("date", window.date.toString());
+        map.put("closesAt", window.closesAt.toString());
+        map.put("open", !window.closed && !window.isExpired());
+        map.put("checkedIn", window.seen.size());
+        map.put("saved", window.flushed);
+        map.put("markedAbsent", window.markedAbsent);
+        return map;
+    }
+
+    private static class CheckInWindow {
+        final String courseId;
+        final LocalDate date;
+        final String facultyId;
+        final Instant closesAt;
+        final Set<String> roster;
+        final Set<String> seen = ConcurrentHashMap.newKeySet();
+        final Queue<String> pending = new ConcurrentLinkedQueue<>();
+        final Queue<String> absent = new ConcurrentLinkedQueue<>(); // filled once, when the window closes
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        volatile boolean closed;
+        volatile int flushed;
+        volatile int markedAbsent;
+
+        CheckInWindow(String courseId, LocalDate date, String facultyId, Instant closesAt, Set<String> roster) {
+            this.courseId = courseId;
+            this.date = date;
+            this.facultyId = facultyId;
+            this.closesAt = closesAt;
+            this.roster = roster;
+        }
+
+        boolean isExpired() {
+            return Instant.now().isAfter(closesAt);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.university.portal.service;
+
+import com.university.portal.dto.UploadInitRequest;
+import com.university.portal.entity.FileBlob;
+import com.university.portal.entity.Submission;
+import com.university.portal.entity.UploadSession;
+import com.university.portal.repository.UploadSessionRepository;
+import com.university.portal.storage.StorageBackend;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads in three steps: initiate, PUT chunks at increasing
+ * offsets, commit. Chunk bodies are streamed from the request straight into a
+ * part file in the blob staging directory, so nothing is spooled in memory or
+ * multipart temp space. On commit a link to the part file is moved into the
+ * blob store and the submission is created; the part file is removed once
+ * that transaction commits.
+ * <p>
+ * When the storage backend assembles multipart uploads (S3), chunks are
+ * streamed to it as parts instead, since the chunks of one upload may reach
+ * different nodes. The store joins them on commit and the blob store adopts
+ * the result without the bytes passing through local disk.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository sessionRepository;
+    private final BlobStore blobStore;
+    private final SubmissionService submissionService;
+    private final StorageBackend storage;
+
+    // Upload ids with a chunk currently being written on this node
+    private final Set<String> activeChunks = ConcurrentHashMap.newKeySet();
+
+    @Value("${file.chunked.max-size:524288000}")
+    private long maxSize;
+
+    @Value("${file.chunked.chunk-size:8388608}")
+    private long chunkSize;
+
+    @Value("${file.chunked.expiry-hours:24}")
+    private long expiryHours;
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public UploadSession initiate(UploadInitRequest request) throws IOException {
+        if (request.getCourseId() == null || request.getAssignmentId() == null || request.getStudentId() == null) {
+            throw new IllegalArgumentException("courseId, assignmentId and studentId are required");
+        }
+        if (request.getSize() == null || request.getSize() <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        if (request.getSize() > maxSize) {
+            throw new IllegalArgumentException("File exceeds the maximum upload size of " + maxSize + " bytes");
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        String partPath;
+        String multipartId = null;
+        if (storage.supportsMultipart()) {
+            partPath = "uploads/" + uploadId;
+            multipartId = storage.createMultipart(partPath);
+        } else {
+            Path part = blobStore.tmpDir().resolve("chunked-" + uploadId + ".part");
+            Files.createFile(part);
+            partPath = part.toString();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return sessionRepository.save(UploadSession.builder()
+                .uploadId(uploadId)
+                .courseId(request.getCourseId())
+                .assignmentId(request.getAssignmentId())
+                .studentId(request.getStudentId())
+                .fileName(request.getFileName())
+                .totalSize(request.getSize())
+                .receivedBytes(0)
+                .partPath(partPath)
+                .multipartId(multipartId)
+                .partEtags(new ArrayList<>())
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    public Optional<UploadSession> status(String uploadId) {
+        return sessionRepository.findByUploadId(uploadId);
+    }
+
+    /**
+     * Appends one chunk at {@code offset}, which must equal the bytes received so
+     * far. Anything past that offset left by an interrupted chunk is discarded
+     * first, so a client resumes by asking for the offset and re-sending from it.
+     *
+     * @param length the chunk's Content-Length, or -1 if the client did not send one
+     * @param expectedSha256 optional hex SHA-256 of the chunk; a mismatch rejects the chunk
+     */
+    public UploadSession appendChunk(String uploadId, long offset, InputStream body, long length,
+            String expectedSha256) throws IOException {
+        if (!activeChunks.add(uploadId)) {
+            throw new IllegalStateException("Another chunk for this upload is still being written");
+        }
+        try {
+            UploadSession session = sessionRepository.findByUploadId(uploadId)
+                    .orElseThrow(() -> new NoSuchElementException("Unknown upload " + uploadId));
+            if (session.getStatus() != UploadSession.Status.OPEN) {
+                throw new IllegalStateException("Upload is already committed");
+            }
+            if (offset != session.getReceivedBytes()) {
+                throw new IllegalStateException("Chunk offset " + offset + " does not match received bytes");
+            }
+
+            long written = session.getMultipartId() != null
+                    ? appendPart(session, offset, body, length, expectedSha256)
+                    : appendToPartFile(session, offset, body, expectedSha256);
+
+            session.setReceivedBytes(offset + written);
+            session.setUpdatedAt(LocalDateTime.now());
+            return sessionRepository.save(session);
+        } finally {
+            activeChunks.remove(uploadId);
+        }
+    }
+
+    private long appendToPartFile(UploadSession session, long offset, InputStream body, String expectedSha256)
+            throws IOException {
+        long limit = session.getTotalSize() - offset;
+        long written = 0;
+        MessageDigest sha256 = BlobStore.sha256();
+        try (FileChannel channel = FileChannel.open(Paths.get(session.getPartPath()), StandardOpenOption.WRITE)) {
+            channel.truncate(offset);
+            channel.position(offset);
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = body.read(buffer)) > 0) {
+                if (written + n > limit) {
+                    channel.truncate(offset);
+                    throw new IllegalArgumentException("Chunk runs past the declared file size");
+                }
+                sha256.update(buffer, 0, n);
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, n);
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                written += n;
+            }
+
+            if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(HexFormat.of().formatHex(sha256.digest()))) {
+                channel.truncate(offset);
+                throw new IllegalArgumentException("Chunk checksum mismatch");
+            }
+            // Only advertise bytes that survive a crash as received
+            channel.force(false);
+        }
+        return written;
+    }
+
+    /**
+     * Streams the chunk to the store as the next part. Every chunk but the last
+     * must be exactly {@code chunkSize} bytes, which also keeps parts above the
+     * store's minimum part size. A part that fails its checksum is not recorded;
+     * re-sending the chunk replaces it.
+     */
+    private long appendPart(UploadSession session, long offset, InputStream body, long length, String expectedSha256)
+            throws IOException {
+        long remaining = session.getTotalSize() - offset;
+        if (length < 0) {
+            throw new IllegalArgumentException("Chunks must be sent with a Content-Length");
+        }
+        if (length == 0)
+            return 0;
+        if (length > remaining) {
+            throw new IllegalArgumentException("Chunk runs past the declared file size");
+        }
+        if (length != chunkSize && length != remaining) {
+            throw new IllegalArgumentException("Every chunk but the last must be " + chunkSize + " bytes");
+        }
+
+        MessageDigest sha256 = BlobStore.sha256();
+        int partNumber = session.getPartEtags().size() + 1;
+        String etag = storage.putPart(session.getPartPath(), session.getMultipartId(), partNumber,
+                new DigestInputStream(body, sha256), length);
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(HexFormat.of().formatHex(sha256.digest()))) {
+            throw new IllegalArgumentException("Chunk checksum mismatch");
+        }
+
+        List<String> etags = new ArrayList<>(session.getPartEtags());
+        etags.add(etag);
+        session.setPartEtags(etags);
+        return length;
+    }
+
+    /**
+     * Adopts the completed upload into the blob store and creates or updates the
+     * submission. Committing an already committed upload returns it unchanged, so
+     * a client can safely retry after losing the response.
+     */
+    @Transactional
+    public UploadSession commit(String uploadId) throws IOException {
+        UploadSession session = sessionRepository.findForUpdateByUploadId(uploadId)
+                .orElseThrow(() -> new NoSuchElementException("Unknown upload " + uploadId));
+        if (session.getStatus() == UploadSession.Status.COMMITTED) {
+            return session;
+        }
+        if (activeChunks.contains(uploadId)) {
+            throw new IllegalStateException("A chunk is still being written");
+        }
+        if (session.getReceivedBytes() != session.getTotalSize()) {
+            throw new IllegalStateException("Upload is incomplete: received " + session.getReceivedBytes() + " of "
+                    + session.getTotalSize() + " bytes");
+        }
+
+        FileBlob blob = session.getMultipartId() != null ? adoptAssembled(session) : adoptPartFile(session);
+        Submission submission = submissionService.attach(session.getCourseId(), session.getAssignmentId(),
+                session.getStudentId(), session.getFileName(), blob);
+
+        session.setStatus(UploadSession.Status.COMMITTED);
+        session.setSubmissionId(submission.getId());
+        session.setUpdatedAt(LocalDateTime.now());
+        return sessionRepository.save(session);
+    }
+
+    private FileBlob adoptPartFile(UploadSession session) throws IOException {
+        Path part = Paths.get(session.getPartPath());
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            channel.truncate(session.getTotalSize());
+        }
+
+        // adopt() consumes the file it is given, so it gets a second link; the part file itself
+        // stays until the commit holds, and a retry after a rollback finds it intact
+        Path staged = blobStore.tmpDir().resolve("commit-" + UUID.randomUUID() + ".part");
+        try {
+            Files.createLink(staged, part);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(part, staged);
+        }
+        FileBlob blob;
+        try {
+            blob = blobStore.adopt(staged);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+        deleteAfterCommit(part);
+        return blob;
+    }
+
+    // The parts are joined once; a commit retried after a rollback finds the assembled object instead
+    private FileBlob adoptAssembled(UploadSession session) throws IOException {
+        if (!storage.exists(session.getPartPath())) {
+            storage.completeMultipart(session.getPartPath(), session.getMultipartId(), session.getPartEtags());
+        }
+        return blobStore.adoptObject(session.getPartPath());
+    }
+
+    private static void deleteAfterCommit(Path part) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    Files.deleteIfExists(part);
+                } catch (IOException ignored) {
+                    // the committed session no longer points at it
+                }
+            }
+        });
+    }
+
+    /** Drops uploads abandoned before commit, together with their part files. */
+    @Scheduled(fixedDelayString = "${file.blob-sweep-interval-ms:3600000}")
+    public void sweepExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(expiryHours);
+        for (UploadSession session : sessionRepository.findByStatusAndUpdatedAtBefore(UploadSession.Status.OPEN,
+                cutoff)) {
+            if (activeChunks.contains(session.getUploadId()))
+                continue;
+            try {
+                if (session.getMultipartId() != null) {
+                    storage.abortMultipart(session.getPartPath(), session.getMultipartId());
+                    storage.delete(session.getPartPath()); // assembled by a commit that rolled back
+                } else {
+                    Files.deleteIfExists(Paths.get(session.getPartPath()));
+                }
+            } catch (IOException e) {
+                continue; // retried on the next sweep
+            }
+            sessionRepository.delete(session);
+        }
+        // Committed sessions are only kept so a retried commit stays idempotent
+        sessionRepository.deleteAll(
+                sessionRepository.findByStatusAndUpdatedAtBefore(UploadSession.Status.COMMITTED, cutoff));
+    }
+}
@@ -0,0 +1,250 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.ExtractedText;
+import com.university.portal.entity.FileBlob;
+import com.university.portal.entity.Submission;
+import com.university.portal.repository.ExtractedTextRepository;
+import com.university.portal.repository.FileBlobRepository;
+import com.university.portal.storage.StorageBackend;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Plain text of submitted files, extracted once per blob. The first analysis of
+ * a blob decodes it, normalises the text and stores it deflated under
+ * {@code texts/ab/cd/<sha256>} in the {@link StorageBackend}, recorded in
+ * extracted_texts. Every later analysis of the same content, including re-runs
+ * after the scorers change, only inflates the stored text. Text is read back as
+ * a stream or loaded up to a character limit, so a large document never has to
+ * be held whole.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExtractedTextService {
+
+    /** Bump when {@link #normalize} changes; older extractions are redone on next use. */
+    static final int FORMAT_VERSION = 1;
+
+    private static final Set<String> TEXT_EXTENSIONS = Set.of(
+            "txt", "md", "markdown", "csv", "tex", "html", "htm", "xml", "json", "rst",
+            "java", "py", "c", "h", "cpp", "hpp", "cs", "js", "ts", "sql", "sh");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SWEEP_BATCH = 500;
+
+    private final ExtractedTextRepository textRepository;
+    private final FileBlobRepository fileBlobRepository;
+    private final BlobStore blobStore;
+    private final StorageBackend storage;
+
+    @Value("${feedback.text.store-max-chars:67108864}")
+    private long maxChars;
+
+    public static boolean isText(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 && TEXT_EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * The submission's normalised text, at most {@code limit} characters, or null
+     * if its file is not a text format. Blob-backed files go through the cache,
+     * and a cached text whose stored object is missing is extracted again;
+     * legacy files without a digest are decoded directly.
+     */
+    public String textOf(Submission submission, String digest, int limit) throws IOException {
+        String name = submission.getFileName() != null ? submission.getFileName() : submission.getFileUrl();
+        if (name == null || !isText(name))
+            return null;
+
+        if (digest != null) {
+            FileBlob blob = fileBlobRepository.findByDigest(digest)
+                    .orElseThrow(() -> new IOException("Blob " + digest + " no longer exists"));
+            ExtractedText text = extract(blob);
+            try {
+                return load(text, limit);
+            } catch (IOException e) {
+                if (storage.exists(text.getStoragePath()))
+                    throw e;
+                // The row outlived its object (restored database, cleared bucket): extract it again
+                return load(extract(blob, true), limit);
+            }
+        }
+        if (submission.getFileUrl() == null)
+            return null;
+        StringBuilder text = new StringBuilder();
+        try (Reader in = decode(storage.get(submission.getFileUrl()))) {
+            normalize(in, text, limit);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Returns the blob's stored text, extracting it first if it has not been
+     * extracted yet or was extracted by an older {@link #FORMAT_VERSION}. Two
+     * workers extracting the same content both write identical output, so the
+     * race is harmless.
+     */
+    public ExtractedText extract(FileBlob blob) throws IOException {
+        return extract(blob, false);
+    }
+
+    private ExtractedText extract(FileBlob blob, boolean force) throws IOException {
+        ExtractedText existing = textRepository.findByDigest(blob.getDigest()).orElse(null);
+        if (!force && existing != null && existing.getFormatVersion() == FORMAT_VERSION)
+            return existing;
+
+        String key = textKey(blob.getDigest());
+        Path tmp = Files.createTempFile(blobStore.tmpDir(), "text-", ".part");
+        Stats stats;
+        long compressedSize;
+        try {
+            try (Reader in = decode(blobStore.open(blob));
+                    Writer out = new BufferedWriter(new OutputStreamWriter(
+                            new DeflaterOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                stats = normalize(in, out, maxChars);
+            }
+            compressedSize = Files.size(tmp);
+            storage.putFile(key, tmp);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        textRepository.upsert(blob.getDigest(), FORMAT_VERSION, key, stats.chars, stats.words, compressedSize,
+                stats.truncated);
+        return textRepository.findByDigest(blob.getDigest())
+                .orElseThrow(() -> new IOException("Extracted text for " + blob.getDigest() + " was not recorded"));
+    }
+
+    /** Streams the stored text; the caller closes the reader. */
+    public Reader open(ExtractedText text) throws IOException {
+        return new BufferedReader(new InputStreamReader(new InflaterInputStream(storage.get(text.getStoragePath())),
+                StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /** Loads the first {@code limit} characters of the stored text. */
+    public String load(ExtractedText text, int limit) throws IOException {
+        StringBuilder result = new StringBuilder((int) Math.min(text.getCharCount(), limit));
+        char[] buffer = new char[8192];
+        try (Reader in = open(text)) {
+            int n;
+            while (result.length() < limit
+                    && (n = in.read(buffer, 0, Math.min(buffer.length, limit - result.length()))) > 0) {
+                result.append(buffer, 0, n);
+            }
+        }
+        return result.toString();
+    }
+
+    public static String textKey(String digest) {
+        return "texts/" + digest.substring(0, 2) + "/" + digest.substring(2, 4) + "/" + digest;
+    }
+
+    /** Removes texts whose blob has been swept. */
+    @Scheduled(fixedDelayString = "${file.blob-sweep-interval-ms:3600000}")
+    public void sweep() {
+        for (ExtractedText orphan : textRepository.findOrphans(PageRequest.of(0, SWEEP_BATCH))) {
+            try {
+                storage.delete(orphan.getStoragePath());
+            } catch (IOException e) {
+                continue; // retried on the next sweep
+            }
+            textRepository.delete(orphan);
+        }
+    }
+
+    /** UTF-8 unless a UTF-16 byte order mark says otherwise; malformed input becomes U+FFFD. */
+    private static Reader decode(InputStream raw) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(raw, BUFFER_SIZE);
+        in.mark(3);
+        int b0 = in.read(), b1 = in.read(), b2 = in.read();
+        Charset charset = StandardCharsets.UTF_8;
+        in.reset();
+        if (b0 == 0xFE && b1 == 0xFF) {
+            charset = StandardCharsets.UTF_16BE;
+            in.skipNBytes(2);
+        } else if (b0 == 0xFF && b1 == 0xFE) {
+            charset = StandardCharsets.UTF_16LE;
+            in.skipNBytes(2);
+        } else if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            in.skipNBytes(3);
+        }
+        return new InputStreamReader(in, charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE));
+    }
+
+    static class Stats {
+        long chars;
+        long words;
+        boolean truncated;
+    }
+
+    /**
+     * Copies at most {@code limit} characters of normalised text: line endings
+     * become \n, runs of spaces, tabs and control characters become one space,
+     * leading and trailing whitespace on a line is dropped and more than one
+     * blank line in a row is collapsed, so paragraph breaks survive.
+     */
+    static Stats normalize(Reader in, Appendable out, long limit) throws IOException {
+        Stats stats = new Stats();
+        char[] buffer = new char[8192];
+        int newlines = 0;
+        boolean space = false, carriageReturn = false, inWord = false;
+        int n;
+        read:
+        while ((n = in.read(buffer)) > 0) {
+            for (int i = 0; i < n; i++) {
+                char c = buffer[i];
+                if (c == '\n' && carriageReturn) {
+                    carriageReturn = false;
+                    continue;
+                }
+                carriageReturn = c == '\r';
+                if (c == '\r' || c == '\n') {
+                    newlines++;
+                    space = false;
+                    inWord = false;
+                    continue;
+                }
+                if (c == '\t' || c == '\uFEFF' || Character.isSpaceChar(c) || Character.isISOControl(c)) {
+                    space = newlines == 0;
+                    inWord = false;
+                    continue;
+                }
+
+                int separator = stats.chars == 0 ? 0 : newlines > 0 ? Math.min(newlines, 2) : space ? 1 : 0;
+                if (stats.chars + separator + 1 > limit) {
+                    stats.truncated = true;
+                    break read;
+                }
+                for (int k = 0; k < separator; k++) {
+                    out.append(newlines > 0 ? '\n' : ' ');
+                }
+                out.append(c);
+                stats.chars += separator + 1;
+                newlines = 0;
+                space = false;
+
+                boolean wordChar = Character.isLetterOrDigit(c) || (inWord && (c == '\'' || c == '\u2019'));
+                if (wordChar && !inWord)
+                    stats.words++;
+                inWord = wordChar;
+            }
+        }
+        return stats;
+    }
+}
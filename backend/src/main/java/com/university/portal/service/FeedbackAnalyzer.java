@@ -0,0 +1,164 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.AIFeedback;
+import com.university.portal.entity.Assignment;
+import com.university.portal.entity.FeedbackJob;
+import com.university.portal.entity.Submission;
+import com.university.portal.repository.AIFeedbackRepository;
+import com.university.portal.repository.AssignmentRepository;
+import com.university.portal.repository.SubmissionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Computes grammar, relevance and originality scores for a submission from its
+ * text, entirely in-process, and writes them as the submission's AIFeedback.
+ * The text comes from the {@link ExtractedTextService}, so re-scoring a file
+ * does not decode it again.
+ * Grammar comes from the rule-based {@link GrammarChecker}.
+ * Originality comes from the {@link SimilarityIndex}, which is updated with the
+ * submission as a side effect. Only text formats are analysed; other files get
+ * feedback without scores. Results are written only while the job's claim is
+ * still held.
+ */
+@Service
+@RequiredArgsConstructor
+public class FeedbackAnalyzer {
+
+    private static final int SIMILAR_SUBMISSIONS = 5;
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}']+");
+
+    private final SubmissionRepository submissionRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final AIFeedbackRepository aiFeedbackRepository;
+    private final ExtractedTextService extractedTextService;
+    private final GrammarChecker grammarChecker;
+    private final SimilarityIndex similarityIndex;
+    private final RelevanceIndex relevanceIndex;
+    private final FeedbackJobService jobService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${feedback.text.score-max-chars:1048576}")
+    private int maxTextChars;
+
+    public void analyze(FeedbackJob job) throws IOException {
+        Submission submission = submissionRepository.findById(job.getSubmissionId()).orElse(null);
+        if (submission == null)
+            return; // archived or removed since it was queued
+        Assignment assignment = assignmentRepository.findById(submission.getAssignmentId()).orElse(null);
+        String text = extractedTextService.textOf(submission, job.getBlobDigest(), maxTextChars);
+        List<String> words = text != null ? words(text) : List.of();
+
+        List<String> suggestions = new ArrayList<>();
+        Integer grammar = words.isEmpty() ? null : grammarScore(text, suggestions);
+        Integer relevance = words.isEmpty() || assignment == null ? null : relevanceScore(assignment, words, suggestions);
+
+        // Nothing is written once the claim is lost, e.g. the job was re-queued for a newer file
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jobService.holdsClaim(job))
+                save(job, submission, words, grammar, relevance, suggestions);
+        });
+    }
+
+    private void save(FeedbackJob job, Submission submission, List<String> words, Integer grammar, Integer relevance,
+                      List<String> suggestions) {
+        // Also drops the previous file's entry when the new one has no text
+        List<SimilarityIndex.Match> similar = similarityIndex.indexAndFindSimilar(submission, job.getBlobDigest(), words,
+                SIMILAR_SUBMISSIONS);
+
+        Integer originality = null;
+        String summary;
+        if (words.isEmpty()) {
+            summary = "No text could be extracted from this file, so it was not scored automatically.";
+        } else {
+            originality = originalityScore(similar, suggestions);
+            summary = summary(words.size(), grammar, relevance, originality);
+        }
+
+        AIFeedback feedback = aiFeedbackRepository.findBySubmissionId(submission.getId())
+                .orElse(AIFeedback.builder().submissionId(submission.getId()).build());
+        feedback.setGrammarScore(grammar);
+        feedback.setRelevanceScore(relevance);
+        feedback.setOriginalityScore(originality);
+        feedback.setOverallScore(overall(grammar, relevance, originality));
+        feedback.setSummary(summary);
+        feedback.setSuggestions(suggestions);
+        aiFeedbackRepository.save(feedback);
+    }
+
+    private int grammarScore(String text, List<String> suggestions) {
+        GrammarChecker.Result result = grammarChecker.check(text);
+        suggestions.addAll(result.getSuggestions());
+        return result.getScore();
+    }
+
+    private Integer relevanceScore(Assignment assignment, List<String> words, List<String> suggestions) {
+        RelevanceIndex.Result result = relevanceIndex.score(assignment, words);
+        if (result == null)
+            return null;
+        if (result.getScore() < 70 && !result.getMissingTerms().isEmpty()) {
+            suggestions.add("Address the assignment topic more directly, e.g. "
+                    + String.join(", ", result.getMissingTerms()) + ".");
+        }
+        return result.getScore();
+    }
+
+    /** 100 minus the estimated overlap, in percent, with the most similar other submission. */
+    private int originalityScore(List<SimilarityIndex.Match> matches, List<String> suggestions) {
+        double closest = matches.isEmpty() ? 0 : matches.get(0).getSimilarity();
+        if (closest >= 0.5) {
+            suggestions.add("Large parts of this text closely match another submission for this assignment; "
+                    + "make sure the work is your own and cite any sources you used.");
+        } else if (closest >= 0.25) {
+            suggestions.add("Some passages overlap with another submission; rephrase them in your own words.");
+        }
+        return clamp((int) Math.round(100 - closest * 100));
+    }
+
+    private static String summary(int wordCount, Integer grammar, Integer relevance, Integer originality) {
+        StringBuilder summary = new StringBuilder("Automatically analysed " + wordCount + " words.");
+        if (grammar != null)
+            summary.append(" Writing mechanics are ").append(band(grammar)).append('.');
+        if (relevance != null)
+            summary.append(" Coverage of the assignment topic is ").append(band(relevance)).append('.');
+        if (originality != null)
+            summary.append(" Originality compared with other submissions is ").append(band(originality)).append('.');
+        return summary.toString();
+    }
+
+    private static String band(int score) {
+        return score >= 85 ? "strong" : score >= 65 ? "adequate" : "weak";
+    }
+
+    private static Integer overall(Integer... scores) {
+        int sum = 0, n = 0;
+        for (Integer s : scores) {
+            if (s != null) {
+                sum += s;
+                n++;
+            }
+        }
+        return n > 0 ? Math.round((float) sum / n) : null;
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        Matcher m = WORD.matcher(text.toLowerCase(Locale.ROOT));
+        while (m.find()) {
+            words.add(m.group());
+        }
+        return words;
+    }
+
+    private static int clamp(int score) {
+        return Math.max(0, Math.min(100, score));
+    }
+}
@@ -0,0 +1,169 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.FeedbackJob;
+import com.university.portal.entity.Submission;
+import com.university.portal.repository.FeedbackJobRepository;
+import com.university.portal.repository.SubmissionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The feedback_jobs table as a durable work queue. Jobs are claimed with
+ * SELECT ... FOR UPDATE SKIP LOCKED, so any number of nodes can poll it. Each
+ * claim gets its own token in {@code lockedBy}; completing or failing a job is
+ * a no-op once the job has been re-queued or its lease taken over.
+ */
+@Service
+@RequiredArgsConstructor
+public class FeedbackJobService {
+
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    private final FeedbackJobRepository jobRepository;
+    private final SubmissionRepository submissionRepository;
+
+    private final String nodeId = nodeId();
+    private final AtomicLong claims = new AtomicLong();
+
+    @Value("${feedback.jobs.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${feedback.jobs.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    @Value("${feedback.jobs.lease-minutes:15}")
+    private long leaseMinutes;
+
+    /** Queues feedback generation for the submission's current file; joins the caller's transaction. */
+    public void enqueue(Long submissionId, String blobDigest) {
+        jobRepository.enqueue(submissionId, blobDigest);
+    }
+
+    /**
+     * Queues every submission of the assignment (or all submissions when null)
+     * for re-analysis, e.g. to backfill the similarity index or after scoring changes.
+     */
+    @Transactional
+    public int requeue(Long assignmentId) {
+        List<Submission> submissions = assignmentId != null
+                ? submissionRepository.findByAssignmentId(assignmentId)
+                : submissionRepository.findAll();
+        int queued = 0;
+        for (Submission s : submissions) {
+            if (s.getFileUrl() != null) {
+                jobRepository.enqueue(s.getId(), s.getBlobDigest());
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    /** Claims up to {@code limit} due jobs for this node and marks them RUNNING. */
+    @Transactional
+    public List<FeedbackJob> claim(int limit) {
+        List<Long> ids = jobRepository.lockClaimable(limit);
+        if (ids.isEmpty())
+            return List.of();
+        LocalDateTime now = LocalDateTime.now();
+        for (Long id : ids) {
+            jobRepository.markRunning(id, nodeId + "-" + claims.incrementAndGet(), now);
+        }
+        return jobRepository.findAllById(ids);
+    }
+
+    @Transactional
+    public boolean complete(FeedbackJob job) {
+        return jobRepository.markDone(job.getId(), job.getLockedBy(), LocalDateTime.now()) == 1;
+    }
+
+    /**
+     * Locks the job row and reports whether this claim still holds it. Runs in
+     * the transaction that writes the job's results, so a run whose lease was
+     * recovered, or that was re-queued for a newer file, writes nothing, and
+     * the lease cannot be recovered until those writes commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean holdsClaim(FeedbackJob job) {
+        return jobRepository.findForUpdateById(job.getId())
+                .filter(current -> isClaimedBy(current, job))
+                .isPresent();
+    }
+
+    @Transactional
+    public void fail(FeedbackJob job, Exception error) {
+        jobRepository.findForUpdateById(job.getId())
+                .filter(current -> isClaimedBy(current, job))
+                .ifPresent(current -> scheduleRetry(current, error.getClass().getSimpleName() + ": " + error.getMessage()));
+    }
+
+    /** Puts jobs whose worker died (node restart, crash) back in the queue as a failed attempt. */
+    @Transactional
+    public int recoverExpiredLeases() {
+        List<Long> ids = jobRepository.lockExpired(LocalDateTime.now().minusMinutes(leaseMinutes));
+        if (ids.isEmpty())
+            return 0;
+        List<FeedbackJob> expired = jobRepository.findAllById(ids);
+        expired.forEach(job -> scheduleRetry(job, "Lease expired on " + job.getLockedBy()));
+        return expired.size();
+    }
+
+    /** Re-queues a FAILED job with a fresh attempt budget. */
+    @Transactional
+    public boolean retry(Long id) {
+        FeedbackJob job = jobRepository.findForUpdateById(id).orElse(null);
+        if (job == null || job.getStatus() != FeedbackJob.Status.FAILED)
+            return false;
+        job.setStatus(FeedbackJob.Status.PENDING);
+        job.setAttempts(0);
+        job.setNextAttemptAt(LocalDateTime.now());
+        job.setUpdatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+        return true;
+    }
+
+    public Map<String, Long> counts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (FeedbackJob.Status status : FeedbackJob.Status.values()) {
+            counts.put(status.name(), 0L);
+        }
+        for (Object[] row : jobRepository.countByStatus()) {
+            counts.put(((FeedbackJob.Status) row[0]).name(), ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private static boolean isClaimedBy(FeedbackJob current, FeedbackJob job) {
+        return current.getStatus() == FeedbackJob.Status.RUNNING
+                && Objects.equals(current.getLockedBy(), job.getLockedBy());
+    }
+
+    private void scheduleRetry(FeedbackJob job, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        int attempts = job.getAttempts() + 1;
+        job.setAttempts(attempts);
+        job.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        job.setLockedBy(null);
+        job.setUpdatedAt(now);
+        if (attempts >= maxAttempts) {
+            job.setStatus(FeedbackJob.Status.FAILED);
+        } else {
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, retryBaseSeconds << Math.min(attempts - 1, 20));
+            job.setStatus(FeedbackJob.Status.PENDING);
+            job.setNextAttemptAt(now.plusSeconds(backoff));
+        }
+        jobRepository.save(job);
+    }
+
+    private static String nodeId() {
+        String name = ManagementFactory.getRuntimeMXBean().getName(); // pid@host
+        return name.length() > 40 ? name.substring(0, 40) : name;
+    }
+}
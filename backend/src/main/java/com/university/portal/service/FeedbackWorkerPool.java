@@ -0,0 +1,102 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.FeedbackJob;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs feedback jobs on a fixed pool of worker threads. The poller only claims
+ * as many jobs as there are free slots (running plus a short hand-off queue),
+ * so a backlog stays in the database rather than in memory, and other nodes
+ * can pick it up. Throughput per node is set with feedback.jobs.workers.
+ */
+@Service
+public class FeedbackWorkerPool {
+
+    private final FeedbackJobService jobService;
+    private final FeedbackAnalyzer analyzer;
+    private final ThreadPoolExecutor executor;
+    private final int capacity;
+    private final boolean enabled;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public FeedbackWorkerPool(
+            FeedbackJobService jobService,
+            FeedbackAnalyzer analyzer,
+            @Value("${feedback.jobs.enabled:true}") boolean enabled,
+            @Value("${feedback.jobs.workers:2}") int workers) {
+        this.jobService = jobService;
+        this.analyzer = analyzer;
+        this.enabled = enabled;
+        this.capacity = workers * 2;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workers), r -> {
+                    Thread t = new Thread(r, "feedback-worker-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${feedback.jobs.poll-interval-ms:2000}")
+    public void poll() {
+        if (!enabled || executor.isShutdown())
+            return;
+        jobService.recoverExpiredLeases();
+
+        int free = capacity - inFlight.get();
+        if (free <= 0)
+            return; // saturated: leave the rest queued in the table
+        List<FeedbackJob> jobs = jobService.claim(free);
+        for (FeedbackJob job : jobs) {
+            inFlight.incrementAndGet();
+            executor.execute(() -> run(job));
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("workers", executor.getMaximumPoolSize());
+        metrics.put("active", executor.getActiveCount());
+        metrics.put("inFlight", inFlight.get());
+        metrics.put("completed", completed.get());
+        metrics.put("failed", failed.get());
+        metrics.put("jobs", jobService.counts());
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Unfinished jobs keep their lease and are re-queued by recoverExpiredLeases
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void run(FeedbackJob job) {
+        try {
+            analyzer.analyze(job);
+            jobService.complete(job);
+            completed.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            jobService.fail(job, e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.FileBlob;
+import com.university.portal.storage.StorageBackend;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Serves stored files with HTTP conditional and single-range support. The body
+ * is handed to Tomcat's sendfile when the connector offers it, otherwise it is
+ * copied with {@link FileChannel#transferTo} so file bytes never pass through
+ * a heap buffer of ours. Objects in remote storage are served by redirecting
+ * to a presigned URL, so the bytes do not pass through this node at all.
+ */
+@Service
+@RequiredArgsConstructor
+public class FileDownloadService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final StorageBackend storage;
+    private final BlobStore blobStore;
+
+    @Value("${file.storage.presign-ttl-seconds:300}")
+    private long presignTtlSeconds;
+
+    /**
+     * Serves the object stored under {@code key}, locally or via redirect.
+     *
+     * @param etag quoted entity tag, or null to derive a weak one from size and mtime
+     * @return false if the object does not exist (nothing has been written)
+     */
+    public boolean serveObject(String key, String etag, String downloadName, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<Path> local = storage.localPath(key);
+        if (local.isPresent()) {
+            Path file = local.get();
+            if (!Files.isRegularFile(file))
+                return false;
+            if (etag == null) {
+                etag = "W/\"" + Files.size(file) + "-" + Files.getLastModifiedTime(file).toMillis() + "\"";
+            }
+            serve(file, etag, downloadName, request, response);
+            return true;
+        }
+
+        if (!storage.exists(key))
+            return false;
+        Optional<URI> url = storage.presignedGetUrl(key, downloadName, Duration.ofSeconds(presignTtlSeconds));
+        if (url.isPresent()) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            response.sendRedirect(url.get().toString());
+        } else {
+            serveStream(storage.get(key), storage.size(key), etag != null ? etag : "W/\"" + key + "\"", downloadName,
+                    request, response);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the file (or the requested byte range) to the response.
+     *
+     * @param etag quoted entity tag; a content digest for blob-backed files
+     */
+    public void serve(Path file, String etag, String downloadName, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis() / 1000 * 1000; // HTTP dates have 1s precision
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request, etag, lastModified)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        MediaType type = MediaTypeFactory.getMediaType(downloadName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setContentType(type.toString());
+        response.setContentLengthLong(count);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(downloadName, StandardCharsets.UTF_8).build().toString());
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0)
+                    break; // file shrank underneath us
+                position += sent;
+                remaining -= sent;
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Serves a blob under its digest as a strong ETag. Gzip-stored blobs are
+     * decoded on the fly; raw ones go through {@link #serveObject}.
+     *
+     * @return false if the blob's object does not exist (nothing has been written)
+     */
+    public boolean serveBlob(FileBlob blob, String downloadName, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        String etag = "\"" + blob.getDigest() + "\"";
+        if (!BlobStore.GZIP.equals(blob.getEncoding())) {
+            return serveObject(blob.getStoragePath(), etag, downloadName, request, response);
+        }
+        if (!blobStore.exists(blob))
+            return false;
+        serveStream(blobStore.open(blob), blob.getSize(), etag, downloadName, request, response);
+        return true;
+    }
+
+    /**
+     * Serves content that is decoded on the fly (e.g. a gzip-stored blob). Byte
+     * ranges cannot be honoured, so only ETag revalidation is supported.
+     */
+    public void serveStream(InputStream content, long length, String etag, String downloadName,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (InputStream in = content) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            if (notModified(request, etag, -1)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            MediaType type = MediaTypeFactory.getMediaType(downloadName).orElse(MediaType.APPLICATION_OCTET_STREAM);
+            response.setContentType(type.toString());
+            response.setContentLengthLong(length);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(downloadName, StandardCharsets.UTF_8).build().toString());
+            if (!"HEAD".equalsIgnoreCase(request.getMethod())) {
+                in.transferTo(response.getOutputStream());
+            }
+        }
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || weakValue(tag).equals(weakValue(etag)))
+                    return true;
+            }
+            return false;
+        }
+        long since = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return since >= 0 && lastModified >= 0 && lastModified <= since;
+    }
+
+    /** If-Range: honour the Range header only if the client's copy is still current. */
+    private static boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null)
+            return true;
+        if (ifRange.startsWith("\""))
+            return ifRange.equals(etag); // strong comparison only
+        return dateHeader(request, HttpHeaders.IF_RANGE) == lastModified;
+    }
+
+    /**
+     * Returns {start, end} for a single satisfiable range, an empty array when
+     * the header should be ignored (multiple or malformed ranges are served as
+     * the full file), or null when the range is unsatisfiable.
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0)
+            return new long[0];
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0)
+            return new long[0];
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0)
+                    return null;
+                return new long[] { Math.max(0, length - suffix), length - 1 };
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (end < start)
+                return new long[0];
+            if (start >= length)
+                return null;
+            return new long[] { start, Math.min(end, length - 1) };
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static String weakValue(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
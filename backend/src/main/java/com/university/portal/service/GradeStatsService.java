@@ -0,0 +1,216 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.GradeStats;
+import com.university.portal.repository.GradeStatsRepository;
+import com.university.portal.repository.SubmissionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Per-assignment and per-course score statistics kept in grade_stats. Each row
+ * holds count, sum, sum of squares and a 101-bin histogram (scores are whole
+ * numbers 0..100), so mean, variance, quantiles and percentile ranks are read
+ * from one row in constant time instead of sorting submissions per request.
+ * Rows are adjusted in the same transaction that writes the scores.
+ */
+@Service
+@RequiredArgsConstructor
+public class GradeStatsService {
+
+    private static final int BINS = GradingService.MAX_SCORE + 1;
+
+    private final GradeStatsRepository gradeStatsRepository;
+    private final SubmissionRepository submissionRepository;
+
+    /** Accumulates score changes for one assignment before they are applied. */
+    public static class Delta {
+        private final int[] histogram = new int[BINS];
+        private int count;
+        private long sum;
+        private long sumSquares;
+
+        /** Adds (sign = 1) or removes (sign = -1) a score; null scores are ignored. */
+        public void add(Integer score, int sign) {
+            if (score == null)
+                return;
+            histogram[bin(score)] += sign;
+            count += sign;
+            sum += (long) sign * score;
+            sumSquares += (long) sign * score * score;
+        }
+
+        boolean isEmpty() {
+            return count == 0 && sum == 0 && sumSquares == 0 && Arrays.stream(histogram).allMatch(n -> n == 0);
+        }
+    }
+
+    /** Applies a delta to the assignment's row and to its course-wide row. Must run inside a transaction. */
+    public void apply(String courseId, Long assignmentId, Delta delta) {
+        if (delta.isEmpty())
+            return;
+
+        byte[] empty = encode(new int[BINS]);
+        gradeStatsRepository.insertIfAbsent(courseId, assignmentId, empty);
+        gradeStatsRepository.insertIfAbsent(courseId, GradeStats.COURSE_WIDE, empty);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<GradeStats> rows = gradeStatsRepository.findByCourseIdAndAssignmentIdIn(courseId,
+                List.of(assignmentId, GradeStats.COURSE_WIDE));
+        for (GradeStats stats : rows) {
+            int[] histogram = decode(stats.getHistogram());
+            for (int i = 0; i < BINS; i++) {
+                histogram[i] += delta.histogram[i];
+            }
+            stats.setHistogram(encode(histogram));
+            stats.setCount(stats.getCount() + delta.count);
+            stats.setSum(stats.getSum() + delta.sum);
+            stats.setSumSquares(stats.getSumSquares() + delta.sumSquares);
+            stats.setUpdatedAt(now);
+        }
+        gradeStatsRepository.saveAll(rows);
+    }
+
+    public Optional<GradeStats> find(String courseId, Long assignmentId) {
+        return gradeStatsRepository.findByCourseIdAndAssignmentId(courseId, assignmentId);
+    }
+
+    public List<GradeStats> findByCourse(String courseId) {
+        return gradeStatsRepository.findByCourseIdOrderByAssignmentIdAsc(courseId);
+    }
+
+    /** Share of scores strictly below {@code score} plus half of those equal to it, in percent. */
+    public static double percentileRank(GradeStats stats, int score) {
+        if (stats.getCount() == 0)
+            return 0;
+        int[] histogram = decode(stats.getHistogram());
+        int target = bin(score);
+        long below = 0;
+        for (int i = 0; i < target; i++) {
+            below += histogram[i];
+        }
+        return (below + histogram[target] / 2.0) * 100.0 / stats.getCount();
+    }
+
+    /** Smallest score with at least {@code fraction} of all scores at or below it. */
+    public static Integer quantile(GradeStats stats, double fraction) {
+        if (stats.getCount() == 0)
+            return null;
+        int[] histogram = decode(stats.getHistogram());
+        long needed = Math.max(1, (long) Math.ceil(fraction * stats.getCount()));
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            seen += histogram[i];
+            if (seen >= needed)
+                return i;
+        }
+        return BINS - 1;
+    }
+
+    public static Map<String, Object> describe(GradeStats stats) {
+        int n = stats.getCount();
+        double mean = n > 0 ? (double) stats.getSum() / n : 0;
+        double variance = n > 0 ? Math.max(0, (double) stats.getSumSquares() / n - mean * mean) : 0;
+
+        int[] histogram = decode(stats.getHistogram());
+        int[] buckets = new int[10]; // 0-9, 10-19, ..., 90-100
+        Integer min = null, max = null;
+        for (int i = 0; i < BINS; i++) {
+            if (histogram[i] > 0) {
+                if (min == null)
+                    min = i;
+                max = i;
+            }
+            buckets[Math.min(i / 10, 9)] += histogram[i];
+        }
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("courseId", stats.getCourseId());
+        map.put("assignmentId", stats.getAssignmentId() == GradeStats.COURSE_WIDE ? null : stats.getAssignmentId());
+        map.put("count", n);
+        map.put("mean", Math.round(mean * 100) / 100.0);
+        map.put("variance", Math.round(variance * 100) / 100.0);
+        map.put("stdDev", Math.round(Math.sqrt(variance) * 100) / 100.0);
+        map.put("min", min);
+        map.put("max", max);
+        map.put("p25", quantile(stats, 0.25));
+        map.put("median", quantile(stats, 0.5));
+        map.put("p75", quantile(stats, 0.75));
+        map.put("histogram", buckets);
+        return map;
+    }
+
+    /** Recomputes every row from the submissions table. */
+    @Transactional
+    public int rebuild() {
+        gradeStatsRepository.deleteAllInBatch();
+
+        Map<String, Map<Long, GradeStats>> byCourse = new HashMap<>();
+        Map<GradeStats, int[]> histograms = new IdentityHashMap<>();
+        for (Object[] row : submissionRepository.countScores()) {
+            String courseId = (String) row[0];
+            int score = ((Number) row[2]).intValue();
+            int n = ((Number) row[3]).intValue();
+            Map<Long, GradeStats> rows = byCourse.computeIfAbsent(courseId, c -> new HashMap<>());
+            for (Long assignmentId : List.of((Long) row[1], GradeStats.COURSE_WIDE)) {
+                GradeStats stats = rows.computeIfAbsent(assignmentId, a -> GradeStats.builder()
+                        .courseId(courseId)
+                        .assignmentId(a)
+                        .build());
+                histograms.computeIfAbsent(stats, s -> new int[BINS])[bin(score)] += n;
+                stats.setCount(stats.getCount() + n);
+                stats.setSum(stats.getSum() + (long) n * score);
+                stats.setSumSquares(stats.getSumSquares() + (long) n * score * score);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<GradeStats> all = new ArrayList<>();
+        histograms.forEach((stats, histogram) -> {
+            stats.setHistogram(encode(histogram));
+            stats.setUpdatedAt(now);
+            all.add(stats);
+        });
+        gradeStatsRepository.saveAll(all);
+        return all.size();
+    }
+
+    // Backfills grade_stats the first time it is deployed against existing scores
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (gradeStatsRepository.count() == 0) {
+            rebuild();
+        }
+    }
+
+    // Scores outside 0..100 from before grading was validated are counted in the edge bins
+    private static int bin(int score) {
+        return Math.max(0, Math.min(BINS - 1, score));
+    }
+
+    private static byte[] encode(int[] histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(BINS * Integer.BYTES);
+        for (int n : histogram) {
+            buffer.putInt(n);
+        }
+        return buffer.array();
+    }
+
+    private static int[] decode(byte[] bytes) {
+        int[] histogram = new int[BINS];
+        if (bytes != null) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            for (int i = 0; i < BINS && buffer.remaining() >= Integer.BYTES; i++) {
+                histogram[i] = buffer.getInt();
+            }
+        }
+        return histogram;
+    }
+}
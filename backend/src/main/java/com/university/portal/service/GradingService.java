@@ -0,0 +1,84 @@
+package com.university.portal.service;
+
+import com.university.portal.dto.GradeBatchRequest;
+import com.university.portal.dto.GradeBatchResult;
+import com.university.portal.entity.Submission;
+import com.university.portal.repository.SubmissionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class GradingService {
+
+    public static final int MAX_SCORE = 100;
+
+    private final SubmissionRepository submissionRepository;
+    private final GradeStatsService gradeStatsService;
+
+    /**
+     * Applies a batch of grades to submissions of one assignment in a single
+     * transaction. All rows are loaded in one query and written as batched
+     * versioned updates; items that cannot be applied are reported as
+     * conflicts and skipped without failing the rest of the batch. Grade
+     * statistics are adjusted in the same transaction. A row that changes
+     * between this read and the flush fails the whole batch with an optimistic
+     * locking exception, so the caller can re-read and retry.
+     */
+    @Transactional
+    public GradeBatchResult gradeBatch(Long assignmentId, List<GradeBatchRequest.GradeItem> items) {
+        List<GradeBatchResult.Conflict> conflicts = new ArrayList<>();
+
+        Map<Long, GradeBatchRequest.GradeItem> byId = new LinkedHashMap<>();
+        Set<Long> duplicates = new HashSet<>();
+        for (GradeBatchRequest.GradeItem item : items) {
+            if (item.getSubmissionId() == null)
+                continue;
+            if (byId.putIfAbsent(item.getSubmissionId(), item) != null) {
+                duplicates.add(item.getSubmissionId());
+            }
+        }
+        for (Long id : duplicates) {
+            byId.remove(id);
+            conflicts.add(new GradeBatchResult.Conflict(id, "duplicate", null));
+        }
+
+        Map<Long, Submission> submissions = submissionRepository.findAllById(byId.keySet()).stream()
+                .collect(Collectors.toMap(Submission::getId, Function.identity()));
+
+        List<Submission> toSave = new ArrayList<>();
+        Map<String, GradeStatsService.Delta> deltas = new HashMap<>();
+        int unchanged = 0;
+        for (GradeBatchRequest.GradeItem item : byId.values()) {
+            Submission s = submissions.get(item.getSubmissionId());
+            if (s == null || !s.getAssignmentId().equals(assignmentId)) {
+                conflicts.add(new GradeBatchResult.Conflict(item.getSubmissionId(), "not_found", null));
+            } else if (item.getScore() == null || item.getScore() < 0 || item.getScore() > MAX_SCORE) {
+                conflicts.add(new GradeBatchResult.Conflict(s.getId(), "invalid_score", s.getVersion()));
+            } else if (item.getVersion() != null && !item.getVersion().equals(s.getVersion())) {
+                conflicts.add(new GradeBatchResult.Conflict(s.getId(), "stale", s.getVersion()));
+            } else if (item.getScore().equals(s.getScore()) && s.getStatus() == Submission.Status.EVALUATED) {
+                unchanged++;
+            } else {
+                GradeStatsService.Delta delta = deltas.computeIfAbsent(s.getCourseId(),
+                        c -> new GradeStatsService.Delta());
+                delta.add(s.getScore(), -1);
+                delta.add(item.getScore(), 1);
+                s.setScore(item.getScore());
+                s.setStatus(Submission.Status.EVALUATED);
+                toSave.add(s);
+            }
+        }
+
+        submissionRepository.saveAll(toSave);
+        submissionRepository.flush();
+        deltas.forEach((courseId, delta) -> gradeStatsService.apply(courseId, assignmentId, delta));
+
+        return new GradeBatchResult(toSave.size(), unchanged, conflicts);
+    }
+}
@@ -0,0 +1,528 @@
+package com.university.portal.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Rule-based grammar and style checker. The phrase rules are compiled once into
+ * an Aho-Corasick automaton over a 29-symbol alphabet (ASCII letters,
+ * apostrophe, word break, anything else); a document is then checked in a
+ * single pass over its characters that drives the automaton and, alongside it,
+ * tracks words and sentence boundaries for repeated words, misused articles,
+ * sentence capitalisation, run-ons and the pronoun "I". The pass works on
+ * offsets into the text and primitive counters only; strings are created just
+ * for the final suggestions. Instances are immutable and safe to share between
+ * feedback workers.
+ */
+@Service
+public class GrammarChecker {
+
+    private static final String[][] USAGE = {
+            { "could of", "could have" }, { "should of", "should have" }, { "would of", "would have" },
+            { "must of", "must have" }, { "might of", "might have" }, { "could care less", "couldn't care less" },
+            { "their is", "there is" }, { "their are", "there are" }, { "there own", "their own" },
+            { "your welcome", "you're welcome" }, { "it's own", "its own" }, { "its a", "it's a" },
+            { "more then", "more than" }, { "less then", "less than" }, { "better then", "better than" },
+            { "rather then", "rather than" }, { "other then", "other than" }, { "greater then", "greater than" },
+            { "smaller then", "smaller than" }, { "faster then", "faster than" }, { "slower then", "slower than" },
+            { "an other", "another" }, { "each others", "each other's" }, { "irregardless", "regardless" },
+            { "for all intensive purposes", "for all intents and purposes" },
+            { "one in the same", "one and the same" }, { "in regards to", "in regard to" },
+            { "less elements", "fewer elements" }, { "less items", "fewer items" }, { "less nodes", "fewer nodes" },
+            { "less steps", "fewer steps" }, { "less people", "fewer people" }, { "upmost", "utmost" },
+            { "supposably", "supposedly" }, { "more easier", "easier" }, { "more faster", "faster" },
+            { "more better", "better" }, { "most easiest", "easiest" }, { "most fastest", "fastest" },
+            { "most best", "best" }, { "should have went", "should have gone" }, { "have went", "have gone" },
+            { "has went", "has gone" }, { "was ran", "was run" },
+    };
+
+    // Only non-words: a real word typed by mistake ("trough", "dependant") cannot be told apart from intended use
+    private static final String[][] SPELLING = {
+            { "alot", "a lot" }, { "definately", "definitely" }, { "recieve", "receive" }, { "recieved", "received" },
+            { "seperate", "separate" }, { "seperately", "separately" }, { "occured", "occurred" },
+            { "occurence", "occurrence" }, { "untill", "until" }, { "wich", "which" }, { "thier", "their" },
+            { "becuase", "because" }, { "arguement", "argument" }, { "begining", "beginning" },
+            { "beleive", "believe" }, { "enviroment", "environment" }, { "goverment", "government" },
+            { "independant", "independent" }, { "neccessary", "necessary" }, { "necesary", "necessary" },
+            { "publically", "publicly" }, { "tommorow", "tomorrow" }, { "truely", "truly" }, { "acheive", "achieve" },
+            { "basicly", "basically" }, { "comming", "coming" }, { "existance", "existence" }, { "finaly", "finally" },
+            { "grammer", "grammar" }, { "knowlege", "knowledge" }, { "noticable", "noticeable" },
+            { "refered", "referred" }, { "succesful", "successful" }, { "successfull", "successful" },
+            { "suprise", "surprise" }, { "writting", "writing" }, { "accomodate", "accommodate" },
+            { "adress", "address" }, { "algoritm", "algorithm" }, { "algorithim", "algorithm" },
+            { "calender", "calendar" }, { "commited", "committed" }, { "concious", "conscious" },
+            { "efficent", "efficient" }, { "embarass", "embarrass" },
+            { "explaination", "explanation" }, { "foward", "forward" }, { "garentee", "guarantee" },
+            { "immediatly", "immediately" }, { "implemention", "implementation" }, { "lenght", "length" },
+            { "maintainance", "maintenance" }, { "occassion", "occasion" }, { "paramter", "parameter" },
+            { "performace", "performance" }, { "posible", "possible" }, { "prefered", "preferred" },
+            { "recursivly", "recursively" }, { "refrence", "reference" }, { "relevent", "relevant" },
+            { "responsability", "responsibility" }, { "retreive", "retrieve" }, { "similiar", "similar" },
+            { "sucess", "success" }, { "teh", "the" }, { "threshhold", "threshold" },
+            { "usefull", "useful" }, { "wether", "whether" }, { "wierd", "weird" },
+    };
+
+    private static final String[][] STYLE = {
+            { "in order to", "to" }, { "due to the fact that", "because" }, { "at this point in time", "now" },
+            { "in spite of the fact that", "although" }, { "in the event that", "if" },
+            { "for the purpose of", "for" }, { "has the ability to", "can" }, { "have the ability to", "can" },
+            { "it is important to note that", "(omit)" }, { "the reason why is because", "the reason is that" },
+            { "reason is because", "reason is that" }, { "each and every", "each" }, { "first and foremost", "first" },
+            { "very unique", "unique" }, { "absolutely essential", "essential" }, { "end result", "result" },
+            { "past history", "history" }, { "completely eliminate", "eliminate" }, { "try and", "try to" },
+            { "a large number of", "many" }, { "in close proximity", "near" }, { "prior to", "before" },
+    };
+
+    private static final float USAGE_WEIGHT = 2f;
+    private static final float SPELLING_WEIGHT = 1f;
+    private static final float STYLE_WEIGHT = 0.5f;
+
+    // Checks that are not phrase rules; their issue kinds follow the rules'
+    private static final int REPEATED = 0, LOWERCASE_START = 1, RUN_ON = 2, LONE_I = 3, ARTICLE = 4,
+            SPACE_BEFORE_PUNCTUATION = 5, CHECKS = 6;
+    private static final float[] CHECK_WEIGHTS = { 2f, 1f, 1f, 1f, 1f, 0.5f };
+
+    private static final int RUN_ON_WORDS = 40;
+    private static final int MAX_SUGGESTIONS = 8;
+
+    // Periods after these (and after any single letter or digit) do not end a sentence
+    private static final String[] ABBREVIATIONS = { "etc", "vs", "eg", "ie", "cf", "al", "approx", "fig", "dr",
+            "mr", "mrs", "ms", "prof" };
+    // Deliberate doublings that should not be reported as repeated words
+    private static final String[] DOUBLINGS = { "had", "that" };
+    // Vowel-initial words that take "a"
+    private static final String[] A_PREFIXES = { "one", "once", "eu", "ou" };
+
+    // Automaton alphabet: 'a'..'z' are 0..25
+    private static final int APOSTROPHE = 26, BREAK = 27, OTHER = 28, SYMBOLS = 29;
+
+    private final String[] phrases;
+    private final String[] replacements;
+    private final float[] weights;
+    private final boolean[] style;
+
+    private final int[] delta;   // full transition table, state * SYMBOLS + symbol
+    private final int[] output;  // rule ending at the state, or -1
+    private final int[] dictLink; // nearest proper suffix state with an output, or 0
+
+    public GrammarChecker() {
+        int rules = USAGE.length + SPELLING.length + STYLE.length;
+        phrases = new String[rules];
+        replacements = new String[rules];
+        weights = new float[rules];
+        style = new boolean[rules];
+        int r = 0;
+        for (String[][] group : List.of(USAGE, SPELLING, STYLE)) {
+            for (String[] rule : group) {
+                phrases[r] = rule[0];
+                replacements[r] = rule[1];
+                weights[r] = group == USAGE ? USAGE_WEIGHT : group == SPELLING ? SPELLING_WEIGHT : STYLE_WEIGHT;
+                style[r] = group == STYLE;
+                r++;
+            }
+        }
+
+        // Trie over " phrase ", so matches are bounded by word breaks on both sides
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> outputs = new ArrayList<>();
+        trie.add(emptyRow());
+        outputs.add(-1);
+        for (r = 0; r < rules; r++) {
+            String pattern = " " + phrases[r] + " ";
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int symbol = symbol(pattern.charAt(i));
+                if (symbol == OTHER)
+                    throw new IllegalStateException("Unsupported character in grammar rule \"" + phrases[r] + "\"");
+                if (trie.get(state)[symbol] < 0) {
+                    trie.get(state)[symbol] = trie.size();
+                    trie.add(emptyRow());
+                    outputs.add(-1);
+                }
+                state = trie.get(state)[symbol];
+            }
+            outputs.set(state, r);
+        }
+
+        int states = trie.size();
+        delta = new int[states * SYMBOLS];
+        output = new int[states];
+        dictLink = new int[states];
+        int[] fail = new int[states];
+        for (int s = 0; s < states; s++) {
+            output[s] = outputs.get(s);
+        }
+
+        // Breadth-first, so a state's failure target is complete before its children need it
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < SYMBOLS; c++) {
+            int child = trie.get(0)[c];
+            delta[c] = Math.max(child, 0);
+            if (child > 0)
+                queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (int c = 0; c < SYMBOLS; c++) {
+                int child = trie.get(s)[c];
+                if (child < 0) {
+                    delta[s * SYMBOLS + c] = delta[fail[s] * SYMBOLS + c];
+                    continue;
+                }
+                delta[s * SYMBOLS + c] = child;
+                int f = delta[fail[s] * SYMBOLS + c];
+                fail[child] = f;
+                dictLink[child] = output[f] >= 0 ? f : dictLink[f];
+                queue.add(child);
+            }
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Result {
+        private int score;
+        private int words;
+        private int sentences;
+        private List<String> suggestions;
+    }
+
+    /**
+     * Checks {@code text} and scores it by weighted issues per 100 sentences:
+     * usage errors and repeated words count 2, misspellings and sentence-level
+     * slips 1, wordiness 0.5. Suggestions name the fix and where it first occurs,
+     * most costly first.
+     */
+    public Result check(CharSequence text) {
+        Scan scan = new Scan(text);
+        scan.run();
+        if (scan.sentences == 0)
+            return new Result(100, 0, 0, List.of());
+
+        float weighted = 0;
+        for (int k = 0; k < scan.counts.length; k++) {
+            weighted += scan.counts[k] * weight(k);
+        }
+        int score = (int) Math.round(100 - weighted * 100.0 / scan.sentences);
+        return new Result(Math.max(0, Math.min(100, score)), scan.words, scan.sentences, suggestions(scan));
+    }
+
+    private float weight(int kind) {
+        return kind < phrases.length ? weights[kind] : CHECK_WEIGHTS[kind - phrases.length];
+    }
+
+    private List<String> suggestions(Scan scan) {
+        List<Integer> kinds = new ArrayList<>();
+        for (int k = 0; k < scan.counts.length; k++) {
+            if (scan.counts[k] > 0)
+                kinds.add(k);
+        }
+        kinds.sort(Comparator.comparingDouble((Integer k) -> -scan.counts[k] * weight(k))
+                .thenComparingInt(k -> scan.firstLine[k]));
+
+        List<String> suggestions = new ArrayList<>();
+        for (int k : kinds.subList(0, Math.min(MAX_SUGGESTIONS, kinds.size()))) {
+            suggestions.add(describe(scan, k) + where(scan.counts[k], scan.firstLine[k]));
+        }
+        return suggestions;
+    }
+
+    private String describe(Scan scan, int kind) {
+        if (kind < phrases.length) {
+            return style[kind]
+                    ? "Consider \"" + replacements[kind] + "\" instead of \"" + phrases[kind] + "\""
+                    : "Replace \"" + phrases[kind] + "\" with \"" + replacements[kind] + "\"";
+        }
+        String example = scan.text.subSequence(scan.firstOffset[kind], scan.firstOffset[kind] + scan.firstLength[kind])
+                .toString();
+        switch (kind - phrases.length) {
+            case REPEATED:
+                return "Remove the repeated word \"" + example + "\"";
+            case LOWERCASE_START:
+                return "Start every sentence with a capital letter, e.g. \"" + example + "\"";
+            case RUN_ON:
+                return "Split sentences longer than " + RUN_ON_WORDS + " words";
+            case LONE_I:
+                return "Capitalise the pronoun \"I\"";
+            case ARTICLE:
+                return "Use \"an\" before a vowel sound, e.g. \"an " + example + "\"";
+            default:
+                return "Remove the space before commas and semicolons";
+        }
+    }
+
+    private static String where(int count, int line) {
+        return count == 1 ? " (line " + line + ")." : " (" + count + " times, first on line " + line + ").";
+    }
+
+    /** Per-document scanner state; everything the single pass touches lives in fields and primitives. */
+    private final class Scan {
+        final CharSequence text;
+        final int[] counts = new int[phrases.length + CHECKS];
+        final int[] firstLine = new int[counts.length];
+        final int[] firstOffset = new int[counts.length];
+        final int[] firstLength = new int[counts.length];
+
+        int words, sentences, line = 1;
+
+        int state;                 // automaton state
+        boolean fedBreak;          // last symbol fed was a word break (runs collapse to one)
+
+        int wordStart = -1, wordLength, wordHash;
+        boolean wordAllDigits, wordInnerUpper, wordOpensSentence;
+        int prevStart = -1, prevLength, prevHash;
+        boolean separated = true;  // punctuation or a sentence boundary since the previous word
+        boolean prevIsA;
+
+        int sentenceWords, sentenceLine = 1;
+        boolean armed = true;      // the next word opens a sentence
+        boolean terminal;          // saw . ! or ? that ends the sentence if whitespace follows
+        boolean lineStart = true;
+        int newlines;
+        boolean spaceAfterWord;
+
+        Scan(CharSequence text) {
+            this.text = text;
+        }
+
+        void run() {
+            feed(BREAK);
+            int n = text.length();
+            for (int i = 0; i < n; i++) {
+                char c = text.charAt(i);
+                boolean wordChar = Character.isLetterOrDigit(c) || (wordLength > 0 && (c == '\'' || c == '\u2019'));
+                if (wordChar) {
+                    if (lineStart)
+                        beginLine(Character.isLetter(c));
+                    if (terminal) // "3.14", "file.txt"
+                        terminal = false;
+                    if (wordLength == 0)
+                        startWord(i);
+                    extendWord(c);
+                    feed(symbol(c));
+                    spaceAfterWord = false;
+                    continue;
+                }
+
+                if (wordLength > 0)
+                    endWord(c);
+                if (Character.isWhitespace(c) || c == '\u00A0') {
+                    feed(BREAK);
+                    if (terminal) {
+                        terminal = false;
+                        endSentence();
+                        armed = true;
+                    }
+                    if (c == '\n')
+                        newline();
+                    else if (prevStart >= 0 && !separated)
+                        spaceAfterWord = true;
+                    continue;
+                }
+
+                if (lineStart)
+                    beginLine(false);
+                if (c == '\'' || c == '\u2019') {
+                    feed(APOSTROPHE);
+                    continue;
+                }
+                if (c == '!' || c == '?') {
+                    terminal = true;
+                } else if (c == '.') {
+                    terminal = terminal || !abbreviation(i);
+                } else if (c != '"' && c != ')' && c != ']' && c != '\u201D') {
+                    terminal = false; // closing quotes and brackets may follow the full stop
+                }
+                if ((c == ',' || c == ';') && spaceAfterWord)
+                    record(phrases.length + SPACE_BEFORE_PUNCTUATION, i, 1);
+                spaceAfterWord = false;
+                // Punctuation completes any phrase in progress but cannot sit inside one
+                feed(BREAK);
+                state = 0;
+                fedBreak = false;
+                separated = true;
+            }
+            if (wordLength > 0)
+                endWord(' ');
+            feed(BREAK);
+            endSentence();
+        }
+
+        void feed(int symbol) {
+            if (symbol == BREAK) {
+                if (fedBreak)
+                    return;
+                fedBreak = true;
+            } else {
+                fedBreak = false;
+            }
+            state = delta[state * SYMBOLS + symbol];
+            if (output[state] >= 0)
+                record(output[state], -1, 0);
+            for (int s = dictLink[state]; s != 0; s = dictLink[s]) {
+                record(output[s], -1, 0);
+            }
+        }
+
+        void record(int kind, int offset, int length) {
+            recordAt(kind, line, offset, length);
+        }
+
+        void recordAt(int kind, int atLine, int offset, int length) {
+            if (counts[kind]++ == 0) {
+                firstLine[kind] = atLine;
+                firstOffset[kind] = Math.max(offset, 0);
+                firstLength[kind] = length;
+            }
+        }
+
+        void startWord(int i) {
+            wordStart = i;
+            wordHash = 0;
+            wordAllDigits = true;
+            wordInnerUpper = false;
+            wordOpensSentence = armed;
+            armed = false;
+            if (sentenceWords == 0)
+                sentenceLine = line;
+        }
+
+        void extendWord(char c) {
+            if (wordLength > 0 && Character.isUpperCase(c))
+                wordInnerUpper = true;
+            if (!Character.isDigit(c))
+                wordAllDigits = false;
+            wordHash = 31 * wordHash + Character.toLowerCase(c);
+            wordLength++;
+        }
+
+        void endWord(char next) {
+            words++;
+            sentenceWords++;
+            char first = text.charAt(wordStart);
+            int kinds = phrases.length;
+
+            if (prevStart >= 0 && !separated && !wordAllDigits && prevLength == wordLength && prevHash == wordHash
+                    && regionMatches(prevStart, wordStart, wordLength) && !isAny(DOUBLINGS))
+                record(kinds + REPEATED, wordStart, wordLength);
+
+            // camelCase and iPhone-style names are identifiers, not sentence starts
+            if (wordOpensSentence && Character.isLowerCase(first) && !wordInnerUpper)
+                record(kinds + LOWERCASE_START, wordStart, wordLength);
+
+            if (first == 'i' && (wordLength == 1 || text.charAt(wordStart + 1) == '\'' || text.charAt(wordStart + 1) == '\u2019')
+                    && next != '.' && next != ')' && (wordStart == 0 || text.charAt(wordStart - 1) != '('))
+                record(kinds + LONE_I, wordStart, wordLength);
+
+            if (prevIsA && !separated && wordLength > 1 && "aeioAEIO".indexOf(first) >= 0 && !startsWithAny(A_PREFIXES))
+                record(kinds + ARTICLE, wordStart, wordLength);
+
+            prevIsA = wordLength == 1 && (first == 'a' || (first == 'A' && wordOpensSentence));
+            prevStart = wordStart;
+            prevLength = wordLength;
+            prevHash = wordHash;
+            separated = false;
+            wordLength = 0;
+        }
+
+        void endSentence() {
+            if (sentenceWords == 0)
+                return;
+            sentences++;
+            if (sentenceWords > RUN_ON_WORDS)
+                recordAt(phrases.length + RUN_ON, sentenceLine, -1, 0);
+            sentenceWords = 0;
+            separated = true;
+        }
+
+        void newline() {
+            line++;
+            lineStart = true;
+            if (++newlines >= 2) { // a blank line ends the paragraph
+                endSentence();
+                terminal = false;
+                armed = true;
+            }
+        }
+
+        /**
+         * A line that starts with a letter continues the sentence (hard-wrapped
+         * prose); one that starts with a bullet, number or symbol starts over
+         * without expecting a capital.
+         */
+        void beginLine(boolean letter) {
+            lineStart = false;
+            newlines = 0;
+            if (line > 1 && !letter) {
+                endSentence();
+                armed = false;
+            }
+        }
+
+        /** Whether the period at {@code i} belongs to the word right before it as an abbreviation. */
+        boolean abbreviation(int i) {
+            if (prevStart < 0 || prevStart + prevLength != i)
+                return false;
+            if (prevLength == 1)
+                return true; // initials, "e.g.", list numbers
+            for (String abbreviation : ABBREVIATIONS) {
+                if (abbreviation.length() == prevLength && regionMatches(abbreviation, prevStart))
+                    return true;
+            }
+            return false;
+        }
+
+        boolean isAny(String[] candidates) {
+            for (String candidate : candidates) {
+                if (candidate.length() == wordLength && regionMatches(candidate, wordStart))
+                    return true;
+            }
+            return false;
+        }
+
+        boolean startsWithAny(String[] prefixes) {
+            for (String prefix : prefixes) {
+                if (prefix.length() <= wordLength && regionMatches(prefix, wordStart))
+                    return true;
+            }
+            return false;
+        }
+
+        boolean regionMatches(int a, int b, int length) {
+            for (int i = 0; i < length; i++) {
+                if (Character.toLowerCase(text.charAt(a + i)) != Character.toLowerCase(text.charAt(b + i)))
+                    return false;
+            }
+            return true;
+        }
+
+        boolean regionMatches(String lower, int at) {
+            for (int i = 0; i < lower.length(); i++) {
+                if (Character.toLowerCase(text.charAt(at + i)) != lower.charAt(i))
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z')
+            return c - 'a';
+        if (c >= 'A' && c <= 'Z')
+            return c - 'A';
+        if (c == '\'' || c == '\u2019')
+            return APOSTROPHE;
+        if (c == ' ')
+            return BREAK;
+        return OTHER;
+    }
+
+    private static int[] emptyRow() {
+        int[] row = new int[SYMBOLS];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -0,0 +1,273 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.Assignment;
+import com.university.portal.repository.AssignmentRepository;
+import com.university.portal.repository.CourseRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * TF-IDF relevance of a submission to its assignment. The vocabulary and IDF
+ * weights come from every assignment title/description and course
+ * name/description; an assignment's query vector (its own text plus, at a quarter
+ * weight, its course's) is built once and cached. A submission is reduced to a
+ * sparse vector over the same vocabulary with sublinear term frequency, and
+ * scored by cosine similarity. Words outside the course vocabulary carry no
+ * information about the topic and are left out of both vectors.
+ */
+@Service
+public class RelevanceIndex {
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "has", "have", "her", "his",
+            "its", "our", "out", "was", "were", "will", "with", "this", "that", "these", "those", "from", "into",
+            "than", "then", "them", "they", "their", "there", "what", "when", "which", "who", "how", "why",
+            "your", "about", "each", "also", "such", "use", "using", "used", "one", "two", "may", "should",
+            "given", "write", "submit");
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}']+");
+
+    // Cosine at which relevance is reported as 100. On the seeded courses an on-topic
+    // submission scores about 0.7, one for a sibling assignment about 0.3, off-course below 0.1.
+    private static final double FULL_SCORE_COSINE = 0.6;
+    private static final float COURSE_WEIGHT = 0.25f;
+
+    private final AssignmentRepository assignmentRepository;
+    private final CourseRepository courseRepository;
+    private final long refreshMillis;
+
+    private volatile Vocabulary vocabulary;
+
+    public RelevanceIndex(AssignmentRepository assignmentRepository, CourseRepository courseRepository,
+            @Value("${feedback.relevance.refresh-minutes:10}") long refreshMinutes) {
+        this.assignmentRepository = assignmentRepository;
+        this.courseRepository = courseRepository;
+        this.refreshMillis = refreshMinutes * 60_000;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Result {
+        private int score;
+        private List<String> missingTerms; // heaviest assignment terms the submission never uses
+    }
+
+    /**
+     * Scores {@code words} (lower-cased tokens of the submission) against the
+     * assignment, or returns null if the assignment has no usable terms.
+     */
+    public Result score(Assignment assignment, List<String> words) {
+        Vocabulary vocab = vocabulary();
+        Query query = vocab.queries.computeIfAbsent(assignment.getId(), id -> vocab.query(assignment));
+        if (query.vector.ids.length == 0)
+            return null;
+
+        float[] tf = new float[vocab.idf.length];
+        for (String word : words) {
+            Integer id = vocab.termIds.get(stem(word));
+            if (id != null)
+                tf[id]++;
+        }
+        SparseVector doc = vocab.weigh(tf);
+
+        double cosine = query.vector.dot(doc);
+        int score = (int) Math.round(Math.min(1.0, cosine / FULL_SCORE_COSINE) * 100);
+
+        List<String> missingTerms = new ArrayList<>();
+        for (int id : query.ownTerms) {
+            if (tf[id] == 0 && missingTerms.size() < 5)
+                missingTerms.add(vocab.terms.get(id));
+        }
+        return new Result(score, missingTerms);
+    }
+
+    private Vocabulary vocabulary() {
+        Vocabulary current = vocabulary;
+        if (current == null || System.currentTimeMillis() - current.builtAt > refreshMillis) {
+            synchronized (this) {
+                current = vocabulary;
+                if (current == null || System.currentTimeMillis() - current.builtAt > refreshMillis) {
+                    current = build();
+                    vocabulary = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Vocabulary build() {
+        Map<String, String> courseTexts = new HashMap<>();
+        List<List<String>> documents = new ArrayList<>();
+        for (Object[] row : courseRepository.findTextFields()) {
+            String text = row[1] + " " + (row[2] != null ? row[2] : "");
+            courseTexts.put((String) row[0], text);
+            documents.add(terms(text));
+        }
+        for (Assignment a : assignmentRepository.findAll()) {
+            documents.add(terms(a.getTitle() + " " + (a.getDescription() != null ? a.getDescription() : "")));
+        }
+
+        Map<String, Integer> termIds = new HashMap<>();
+        List<String> terms = new ArrayList<>();
+        List<Integer> df = new ArrayList<>();
+        for (List<String> doc : documents) {
+            for (String term : new HashSet<>(doc)) {
+                Integer id = termIds.get(term);
+                if (id == null) {
+                    termIds.put(term, terms.size());
+                    terms.add(term);
+                    df.add(1);
+                } else {
+                    df.set(id, df.get(id) + 1);
+                }
+            }
+        }
+        float[] idf = new float[terms.size()];
+        for (int i = 0; i < idf.length; i++) {
+            idf[i] = (float) (Math.log((documents.size() + 1.0) / (df.get(i) + 1.0)) + 1.0);
+        }
+        return new Vocabulary(termIds, terms, idf, courseTexts, System.currentTimeMillis());
+    }
+
+    private static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        Matcher m = WORD.matcher(text.toLowerCase(Locale.ROOT));
+        while (m.find()) {
+            String w = m.group();
+            if (w.length() >= 2 && !STOPWORDS.contains(w))
+                terms.add(stem(w));
+        }
+        return terms;
+    }
+
+    /** Light suffix stripping so "lists", "listing" and "list" share a term. */
+    static String stem(String w) {
+        int n = w.length();
+        if (n > 4 && w.endsWith("ies"))
+            return w.substring(0, n - 3) + "y";
+        if (n > 5 && w.endsWith("ing"))
+            return w.substring(0, n - 3);
+        if (n > 4 && w.endsWith("ed"))
+            return w.substring(0, n - 2);
+        if (n > 3 && w.endsWith("s") && !w.endsWith("ss"))
+            return w.substring(0, n - 1);
+        return w;
+    }
+
+    private static final class Vocabulary {
+        final Map<String, Integer> termIds;
+        final List<String> terms;
+        final float[] idf;
+        final Map<String, String> courseTexts;
+        final long builtAt;
+        final Map<Long, Query> queries = new ConcurrentHashMap<>();
+
+        Vocabulary(Map<String, Integer> termIds, List<String> terms, float[] idf, Map<String, String> courseTexts,
+                long builtAt) {
+            this.termIds = termIds;
+            this.terms = terms;
+            this.idf = idf;
+            this.courseTexts = courseTexts;
+            this.builtAt = builtAt;
+        }
+
+        Query query(Assignment assignment) {
+            float[] tf = new float[idf.length];
+            add(tf, assignment.getTitle(), 2f);
+            add(tf, assignment.getDescription(), 1f);
+            SparseVector own = weigh(tf);
+            add(tf, courseTexts.get(assignment.getCourseId()), COURSE_WEIGHT);
+
+            // The assignment's own terms, heaviest first, for suggestions
+            Integer[] order = new Integer[own.ids.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Float.compare(own.weights[b], own.weights[a]));
+            int[] ownTerms = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                ownTerms[i] = own.ids[order[i]];
+            }
+            return new Query(weigh(tf), ownTerms);
+        }
+
+        // Terms of assignments created after the last refresh are simply not in the vocabulary yet
+        private void add(float[] tf, String text, float weight) {
+            if (text == null)
+                return;
+            for (String term : terms(text)) {
+                Integer id = termIds.get(term);
+                if (id != null)
+                    tf[id] += weight;
+            }
+        }
+
+        /** Sublinear tf * idf, L2-normalised, keeping only non-zero terms. */
+        SparseVector weigh(float[] tf) {
+            int nonZero = 0;
+            for (float f : tf) {
+                if (f > 0)
+                    nonZero++;
+            }
+            int[] ids = new int[nonZero];
+            float[] weights = new float[nonZero];
+            double norm = 0;
+            for (int i = 0, j = 0; i < tf.length; i++) {
+                if (tf[i] > 0) {
+                    // Sublinear tf; fractional (down-weighted) query counts stay linear
+                    float w = (float) ((tf[i] >= 1 ? 1 + Math.log(tf[i]) : tf[i]) * idf[i]);
+                    ids[j] = i;
+                    weights[j++] = w;
+                    norm += (double) w * w;
+                }
+            }
+            float scale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 0;
+            for (int j = 0; j < weights.length; j++) {
+                weights[j] *= scale;
+            }
+            return new SparseVector(ids, weights);
+        }
+    }
+
+    private static final class Query {
+        final SparseVector vector;
+        final int[] ownTerms;
+
+        Query(SparseVector vector, int[] ownTerms) {
+            this.vector = vector;
+            this.ownTerms = ownTerms;
+        }
+    }
+
+    private static final class SparseVector {
+        final int[] ids; // ascending
+        final float[] weights;
+
+        SparseVector(int[] ids, float[] weights) {
+            this.ids = ids;
+            this.weights = weights;
+        }
+
+        double dot(SparseVector other) {
+            double sum = 0;
+            int i = 0, j = 0;
+            while (i < ids.length && j < other.ids.length) {
+                if (ids[i] == other.ids[j]) {
+                    sum += (double) weights[i++] * other.weights[j++];
+                } else if (ids[i] < other.ids[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return sum;
+        }
+    }
+}
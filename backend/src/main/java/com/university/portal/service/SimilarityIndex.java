@@ -0,0 +1,247 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.Submission;
+import com.university.portal.entity.SubmissionLshBucket;
+import com.university.portal.entity.SubmissionSignature;
+import com.university.portal.repository.SubmissionLshBucketRepository;
+import com.university.portal.repository.SubmissionSignatureRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Near-duplicate index over submission text, per assignment. Each submission
+ * is reduced to a 128-value MinHash signature of its word 5-shingles; the
+ * signature is split into 32 bands of 4 values and each band is stored as an
+ * indexed bucket key. Looking up similar submissions only touches submissions
+ * that share a bucket, so the cost depends on the number of near matches
+ * rather than on the size of the assignment. Estimated Jaccard similarity is
+ * the share of equal signature values.
+ */
+@Service
+@RequiredArgsConstructor
+public class SimilarityIndex {
+
+    public static final int HASHES = 128;
+    private static final int BANDS = 32;
+    private static final int ROWS = HASHES / BANDS;
+    private static final int SHINGLE_WORDS = 5;
+    // Buckets shared by this many submissions are template text, not evidence of copying
+    private static final int MAX_BUCKET_SIZE = 500;
+
+    private static final long[] SEEDS = new SplittableRandom(0x5EEDL).longs(HASHES).toArray();
+
+    private final SubmissionSignatureRepository signatureRepository;
+    private final SubmissionLshBucketRepository bucketRepository;
+
+    @Data
+    @AllArgsConstructor
+    public static class Match {
+        private Long submissionId;
+        private String studentId;
+        private double similarity;
+    }
+
+    /**
+     * Replaces the submission's entry with one for {@code words} and returns the
+     * {@code k} most similar other submissions of the same assignment.
+     */
+    @Transactional
+    public List<Match> indexAndFindSimilar(Submission submission, String blobDigest, List<String> words, int k) {
+        signatureRepository.deleteBySubmissionIdIn(List.of(submission.getId()));
+        bucketRepository.deleteBySubmissionIdIn(List.of(submission.getId()));
+        if (words.isEmpty())
+            return List.of();
+
+        int[] signature = signature(words);
+        signatureRepository.save(SubmissionSignature.builder()
+                .submissionId(submission.getId())
+                .assignmentId(submission.getAssignmentId())
+                .studentId(submission.getStudentId())
+                .blobDigest(blobDigest)
+                .signature(encode(signature))
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        long[] keys = bucketKeys(signature);
+        List<SubmissionLshBucket> buckets = new ArrayList<>(BANDS);
+        for (long key : keys) {
+            buckets.add(SubmissionLshBucket.builder()
+                    .assignmentId(submission.getAssignmentId())
+                    .bucketKey(key)
+                    .submissionId(submission.getId())
+                    .build());
+        }
+        bucketRepository.saveAll(buckets);
+
+        return findSimilar(submission.getAssignmentId(), submission.getId(), signature, keys, k);
+    }
+
+    /** The {@code k} indexed submissions most similar to an already indexed one. */
+    public List<Match> mostSimilar(Long submissionId, int k) {
+        return signatureRepository.findBySubmissionId(submissionId)
+                .map(s -> {
+                    int[] signature = decode(s.getSignature());
+                    return findSimilar(s.getAssignmentId(), submissionId, signature, bucketKeys(signature), k);
+                })
+                .orElse(List.of());
+    }
+
+    /**
+     * Every pair of submissions in the assignment with estimated similarity of
+     * at least {@code threshold}, grouped per submission, best {@code k} first.
+     */
+    public Map<Long, List<Match>> report(Long assignmentId, double threshold, int k) {
+        // Candidate pairs come only from buckets with several members
+        Map<Long, List<Long>> members = new LinkedHashMap<>();
+        for (Object[] row : bucketRepository.findSharedBuckets(assignmentId, MAX_BUCKET_SIZE)) {
+            members.computeIfAbsent((Long) row[0], key -> new ArrayList<>()).add((Long) row[1]);
+        }
+        // Pairs keyed by the lower submission id
+        Map<Long, Set<Long>> pairs = new HashMap<>();
+        Set<Long> ids = new HashSet<>();
+        for (List<Long> bucket : members.values()) {
+            for (int i = 0; i < bucket.size(); i++) {
+                for (int j = i + 1; j < bucket.size(); j++) {
+                    Long a = Math.min(bucket.get(i), bucket.get(j));
+                    Long b = Math.max(bucket.get(i), bucket.get(j));
+                    if (!a.equals(b) && pairs.computeIfAbsent(a, id -> new HashSet<>()).add(b)) {
+                        ids.add(a);
+                        ids.add(b);
+                    }
+                }
+            }
+        }
+        if (pairs.isEmpty())
+            return Map.of();
+
+        Map<Long, SubmissionSignature> signatures = signatureRepository.findBySubmissionIdIn(ids).stream()
+                .collect(Collectors.toMap(SubmissionSignature::getSubmissionId, Function.identity()));
+        Map<Long, int[]> decoded = new HashMap<>();
+        signatures.forEach((id, s) -> decoded.put(id, decode(s.getSignature())));
+
+        Map<Long, List<Match>> report = new TreeMap<>();
+        for (Map.Entry<Long, Set<Long>> entry : pairs.entrySet()) {
+            Long a = entry.getKey();
+            if (!decoded.containsKey(a))
+                continue;
+            for (Long b : entry.getValue()) {
+                if (!decoded.containsKey(b))
+                    continue;
+                double similarity = similarity(decoded.get(a), decoded.get(b));
+                if (similarity < threshold)
+                    continue;
+                report.computeIfAbsent(a, id -> new ArrayList<>())
+                        .add(new Match(b, signatures.get(b).getStudentId(), similarity));
+                report.computeIfAbsent(b, id -> new ArrayList<>())
+                        .add(new Match(a, signatures.get(a).getStudentId(), similarity));
+            }
+        }
+        report.replaceAll((id, matches) -> top(matches, k));
+        return report;
+    }
+
+    private List<Match> findSimilar(Long assignmentId, Long submissionId, int[] signature, long[] keys, int k) {
+        List<Long> candidates = bucketRepository.findCandidates(assignmentId,
+                Arrays.stream(keys).boxed().collect(Collectors.toList()), submissionId, MAX_BUCKET_SIZE);
+        if (candidates.isEmpty())
+            return List.of();
+
+        List<Match> matches = new ArrayList<>();
+        for (SubmissionSignature other : signatureRepository.findBySubmissionIdIn(candidates)) {
+            matches.add(new Match(other.getSubmissionId(), other.getStudentId(),
+                    similarity(signature, decode(other.getSignature()))));
+        }
+        return top(matches, k);
+    }
+
+    /** MinHash over hashed word shingles; texts shorter than one shingle hash as a single shingle. */
+    static int[] signature(List<String> words) {
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        long[] wordHashes = new long[words.size()];
+        for (int i = 0; i < wordHashes.length; i++) {
+            wordHashes[i] = fnv1a(words.get(i));
+        }
+        int width = Math.min(SHINGLE_WORDS, wordHashes.length);
+        for (int start = 0; start + width <= wordHashes.length; start++) {
+            long shingle = 0;
+            for (int j = 0; j < width; j++) {
+                shingle = shingle * 0x9E3779B97F4A7C15L + wordHashes[start + j];
+            }
+            for (int i = 0; i < HASHES; i++) {
+                int h = (int) (mix(shingle ^ SEEDS[i]) >>> 32);
+                if (h < signature[i])
+                    signature[i] = h;
+            }
+        }
+        return signature;
+    }
+
+    static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[i] == b[i])
+                equal++;
+        }
+        return (double) equal / HASHES;
+    }
+
+    private static long[] bucketKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long h = band;
+            for (int r = 0; r < ROWS; r++) {
+                h = mix(h * 31 + signature[band * ROWS + r]);
+            }
+            keys[band] = (long) band << 48 | (h & 0xFFFF_FFFF_FFFFL);
+        }
+        return keys;
+    }
+
+    private static List<Match> top(List<Match> matches, int k) {
+        return matches.stream()
+                .sorted(Comparator.comparingDouble(Match::getSimilarity).reversed())
+                .limit(k)
+                .collect(Collectors.toList());
+    }
+
+    private static long fnv1a(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static byte[] encode(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(HASHES * Integer.BYTES);
+        for (int v : signature) {
+            buffer.putInt(v);
+        }
+        return buffer.array();
+    }
+
+    private static int[] decode(byte[] bytes) {
+        int[] signature = new int[HASHES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+}
@@ -0,0 +1,149 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.FileBlob;
+import com.university.portal.entity.Submission;
+import com.university.portal.repository.FileBlobRepository;
+import com.university.portal.repository.SubmissionRepository;
+import com.university.portal.storage.StorageBackend;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams every submission of an assignment as a ZIP, one entry per student,
+ * followed by a CSV manifest. Files are read sequentially from storage through
+ * a small buffer; formats that are already compressed are STORED rather than deflated.
+ */
+@Service
+@RequiredArgsConstructor
+public class SubmissionExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "zip", "gz", "tgz", "bz2", "xz", "7z", "rar", "jar",
+            "docx", "xlsx", "pptx", "odt", "ods", "odp", "epub", "pdf",
+            "png", "jpg", "jpeg", "gif", "webp", "mp3", "mp4", "mov", "webm");
+
+    private final SubmissionRepository submissionRepository;
+    private final FileBlobRepository fileBlobRepository;
+    private final StorageBackend storage;
+
+    public void exportAssignment(Long assignmentId, OutputStream target) throws IOException {
+        List<Submission> submissions = submissionRepository.findByAssignmentId(assignmentId).stream()
+                .sorted(Comparator.comparing(Submission::getStudentId))
+                .collect(Collectors.toList());
+
+        Set<String> digests = submissions.stream()
+                .map(Submission::getBlobDigest)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, FileBlob> blobs = digests.isEmpty() ? Map.of()
+                : fileBlobRepository.findByDigestIn(digests).stream()
+                        .collect(Collectors.toMap(FileBlob::getDigest, b -> b));
+
+        StringBuilder manifest = new StringBuilder("studentId,submissionId,entry,fileName,status,score,submittedAt,sha256,size\n");
+        Set<String> usedNames = new HashSet<>();
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        ZipOutputStream zip = new ZipOutputStream(target);
+        for (Submission s : submissions) {
+            String key = s.getFileUrl();
+            String entryName = "";
+            long size = -1;
+
+            if (key != null && storage.exists(key)) {
+                FileBlob blob = s.getBlobDigest() != null ? blobs.get(s.getBlobDigest()) : null;
+                entryName = uniqueName(entryName(s, key), usedNames);
+                size = blob != null ? blob.getSize() : storage.size(key);
+
+                ZipEntry entry = new ZipEntry(entryName);
+                if (s.getSubmittedAt() != null) {
+                    entry.setTimeLocal(s.getSubmittedAt());
+                }
+                if (isCompressed(entryName)) {
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(size);
+                    entry.setCompressedSize(size);
+                    entry.setCrc(blob != null && blob.getCrc32() != null ? blob.getCrc32() : crc32(key, buffer));
+                }
+
+                zip.putNextEntry(entry);
+                try (InputStream in = storage.get(key)) {
+                    int n;
+                    while ((n = in.read(buffer)) > 0) {
+                        zip.write(buffer, 0, n);
+                    }
+                }
+                zip.closeEntry();
+            }
+
+            manifest.append(csvField(s.getStudentId())).append(',')
+                    .append(s.getId()).append(',')
+                    .append(csvField(entryName)).append(',')
+                    .append(csvField(s.getFileName())).append(',')
+                    .append(s.getStatus().name()).append(',')
+                    .append(s.getScore() != null ? s.getScore() : "").append(',')
+                    .append(s.getSubmittedAt() != null ? s.getSubmittedAt() : "").append(',')
+                    .append(s.getBlobDigest() != null ? s.getBlobDigest() : "").append(',')
+                    .append(size >= 0 ? size : "").append('\n');
+        }
+
+        zip.putNextEntry(new ZipEntry("manifest.csv"));
+        zip.write(manifest.toString().getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+    }
+
+    // Legacy files without a stored CRC need one sequential pass before a STORED entry can be written
+    private long crc32(String key, byte[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = storage.get(key)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static String entryName(Submission s, String key) {
+        String original = s.getFileName() != null ? s.getFileName() : key.substring(key.lastIndexOf('/') + 1);
+        int dot = original.lastIndexOf('.');
+        String extension = dot > 0 ? original.substring(dot).replaceAll("[^A-Za-z0-9.]", "") : "";
+        return s.getStudentId().replaceAll("[^A-Za-z0-9._-]", "_") + extension;
+    }
+
+    private static String uniqueName(String name, Set<String> used) {
+        String candidate = name;
+        for (int i = 2; !used.add(candidate); i++) {
+            int dot = name.lastIndexOf('.');
+            candidate = dot > 0 ? name.substring(0, dot) + "-" + i + name.substring(dot) : name + "-" + i;
+        }
+        return candidate;
+    }
+
+    private static boolean isCompressed(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static String csvField(String value) {
+        if (value == null)
+            return "";
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
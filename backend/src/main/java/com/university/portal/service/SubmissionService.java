@@ -0,0 +1,194 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.FileBlob;
+import com.university.portal.entity.Submission;
+import com.university.portal.entity.SubmissionVersion;
+import com.university.portal.repository.AIFeedbackRepository;
+import com.university.portal.repository.FileBlobRepository;
+import com.university.portal.repository.SubmissionRepository;
+import com.university.portal.repository.SubmissionVersionRepository;
+import com.university.portal.storage.StorageBackend;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class SubmissionService {
+
+    private final SubmissionRepository submissionRepository;
+    private final SubmissionVersionRepository versionRepository;
+    private final FileBlobRepository blobRepository;
+    private final AIFeedbackRepository aiFeedbackRepository;
+    private final BlobStore blobStore;
+    private final FeedbackJobService feedbackJobService;
+    private final StorageBackend storage;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${submission.versions.retain:5}")
+    private int retainVersions;
+
+    /**
+     * Stores the uploaded content in the blob store and creates or updates the
+     * student's submission to point at it as a new version.
+     */
+    @Transactional
+    public Submission submit(String courseId, Long assignmentId, String studentId, String fileName,
+            InputStream content) throws IOException {
+        FileBlob blob = blobStore.store(content);
+        return attach(courseId, assignmentId, studentId, fileName, blob);
+    }
+
+    /**
+     * Points the student's submission at the given blob and records it as a new
+     * version. The version takes over the blob reference acquired by the upload;
+     * versions beyond the retention limit are dropped and release theirs.
+     */
+    @Transactional
+    public Submission attach(String courseId, Long assignmentId, String studentId, String fileName, FileBlob blob)
+            throws IOException {
+        // Insert-or-keep on the unique key, then lock the row: concurrent uploads for the same
+        // student and assignment queue up here instead of creating duplicate submissions
+        submissionRepository.insertIfAbsent(assignmentId, studentId, courseId);
+        Submission submission = submissionRepository.findForUpdateByStudentIdAndAssignmentId(studentId, assignmentId)
+                .orElseThrow();
+
+        if (submission.getFileUrl() != null
+                && versionRepository.findTopBySubmissionIdOrderByVersionDesc(submission.getId()).isEmpty()) {
+            recordInitialVersion(submission);
+        }
+        // Reset status for re-evaluation
+        submission.setFileUrl(blob.getStoragePath());
+        submission.setFileName(fileName);
+        submission.setBlobDigest(blob.getDigest());
+        submission.setSubmittedAt(LocalDateTime.now());
+        submission.setStatus(Submission.Status.SUBMITTED);
+
+        submission = submissionRepository.save(submission);
+
+        int next = versionRepository.findTopBySubmissionIdOrderByVersionDesc(submission.getId())
+                .map(v -> v.getVersion() + 1)
+                .orElse(1);
+        versionRepository.save(SubmissionVersion.builder()
+                .submissionId(submission.getId())
+                .version(next)
+                .blobDigest(blob.getDigest())
+                .fileName(fileName)
+                .size(blob.getSize())
+                .submittedAt(submission.getSubmittedAt())
+                .build());
+
+        pruneVersions(submission.getId());
+        // Committed with the submission, so an upload is never left without its feedback job
+        feedbackJobService.enqueue(submission.getId(), blob.getDigest());
+        return submission;
+    }
+
+    /**
+     * Removes duplicate (student, assignment) rows created before the unique key
+     * existed, keeping the most recent upload, then adds the key if schema update
+     * could not create it because of those duplicates. MySQL commits implicitly
+     * around DDL, so the key is added in its own transaction once the deletes
+     * are committed rather than inside theirs.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int removeDuplicates() {
+        Integer removed = transactionTemplate.execute(status -> deleteDuplicates());
+        transactionTemplate.executeWithoutResult(status -> ensureUniqueKey());
+        return removed != null ? removed : 0;
+    }
+
+    private int deleteDuplicates() {
+        int removed = 0;
+        for (Object[] key : submissionRepository.findDuplicateKeys()) {
+            List<Submission> rows = submissionRepository.findByStudentIdAndAssignmentIdOrderBySubmittedAtDescIdDesc(
+                    (String) key[0], (Long) key[1]);
+            for (Submission duplicate : rows.subList(1, rows.size())) {
+                List<SubmissionVersion> versions = versionRepository.findBySubmissionIdOrderByVersionDesc(duplicate.getId());
+                if (versions.isEmpty()) {
+                    blobStore.release(duplicate.getBlobDigest());
+                } else {
+                    versionRepository.deleteAllInBatch(versions);
+                    versions.forEach(v -> blobStore.release(v.getBlobDigest()));
+                }
+                aiFeedbackRepository.deleteBySubmissionIdIn(List.of(duplicate.getId()));
+                submissionRepository.deleteById(duplicate.getId());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public List<SubmissionVersion> getVersions(Long submissionId) {
+        return versionRepository.findBySubmissionIdOrderByVersionDesc(submissionId);
+    }
+
+    public Optional<SubmissionVersion> getVersion(Long submissionId, int version) {
+        return versionRepository.findBySubmissionIdAndVersion(submissionId, version);
+    }
+
+    /**
+     * Submissions uploaded before versioning have no history row yet. Their
+     * current file becomes version 1: a blob-backed file keeps the reference the
+     * submission already held, and a legacy file is copied into the blob store
+     * and removed after commit.
+     */
+    private void recordInitialVersion(Submission submission) throws IOException {
+        FileBlob current = null;
+        if (submission.getBlobDigest() != null) {
+            current = blobRepository.findByDigest(submission.getBlobDigest()).orElse(null);
+        } else if (submission.getFileUrl() != null) {
+            Optional<Path> legacy = storage.localPath(submission.getFileUrl()).filter(Files::isRegularFile);
+            if (legacy.isPresent()) {
+                current = blobStore.adoptCopy(submission.getFileUrl(), legacy.get());
+            }
+        }
+        if (current == null)
+            return;
+
+        versionRepository.save(SubmissionVersion.builder()
+                .submissionId(submission.getId())
+                .version(1)
+                .blobDigest(current.getDigest())
+                .fileName(submission.getFileName())
+                .size(current.getSize())
+                .submittedAt(submission.getSubmittedAt())
+                .build());
+    }
+
+    private void ensureUniqueKey() {
+        Number existing = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM information_schema.statistics "
+                + "WHERE table_schema = DATABASE() AND table_name = 'submissions' "
+                + "AND index_name = 'uk_submissions_student_assignment'").getSingleResult();
+        if (existing.intValue() == 0) {
+            entityManager.createNativeQuery("ALTER TABLE submissions ADD CONSTRAINT uk_submissions_student_assignment "
+                    + "UNIQUE (student_id, assignment_id)").executeUpdate();
+        }
+    }
+
+    private void pruneVersions(Long submissionId) {
+        List<SubmissionVersion> versions = versionRepository.findBySubmissionIdOrderByVersionDesc(submissionId);
+        if (versions.size() <= retainVersions)
+            return;
+
+        List<SubmissionVersion> expired = versions.subList(Math.max(1, retainVersions), versions.size());
+        versionRepository.deleteAllInBatch(expired);
+        for (SubmissionVersion version : expired) {
+            blobStore.release(version.getBlobDigest());
+        }
+    }
+}
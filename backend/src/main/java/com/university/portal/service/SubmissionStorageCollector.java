@@ -0,0 +1,118 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.FileBlob;
+import com.university.portal.repository.FileBlobRepository;
+import com.university.portal.repository.SubmissionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Background upkeep of the upload volume: compresses blobs that only older
+ * submission versions reference, and reclaims files from the pre-blob flat
+ * layout that no submission points at any more. Unreferenced blobs themselves
+ * are removed by {@link BlobStore#sweep()}.
+ */
+@Service
+@RequiredArgsConstructor
+public class SubmissionStorageCollector {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int COMPRESS_PAGE_SIZE = 50;
+    private static final int MAX_COMPRESS_PAGES = 20;
+
+    private final FileBlobRepository blobRepository;
+    private final SubmissionRepository submissionRepository;
+    private final BlobStore blobStore;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${file.orphan-grace-hours:24}")
+    private long orphanGraceHours;
+
+    @Scheduled(fixedDelayString = "${file.blob-sweep-interval-ms:3600000}")
+    public void collect() {
+        compressOldVersions();
+        collectLegacyOrphans();
+    }
+
+    public int compressOldVersions() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(10);
+        int compressed = 0;
+        // compress() marks each blob it examines, so every page brings new candidates; bounded per run
+        for (int page = 0; page < MAX_COMPRESS_PAGES; page++) {
+            List<FileBlob> batch = blobRepository.findCompressionCandidates(before, PageRequest.of(0, COMPRESS_PAGE_SIZE));
+            for (FileBlob blob : batch) {
+                try {
+                    if (blobStore.compress(blob.getDigest()))
+                        compressed++;
+                } catch (IOException e) {
+                    return compressed; // disk trouble; retried on the next run
+                }
+            }
+            if (batch.size() < COMPRESS_PAGE_SIZE)
+                break;
+        }
+        return compressed;
+    }
+
+    /**
+     * Deletes regular files directly under the upload directory (the layout used
+     * before content-addressed storage) that no submission references and that
+     * are older than the grace period. Subdirectories such as blobs/ and tmp/ are
+     * never touched.
+     */
+    public int collectLegacyOrphans() {
+        Path root = Paths.get(uploadDir);
+        if (!Files.isDirectory(root))
+            return 0;
+
+        Instant cutoff = Instant.now().minus(orphanGraceHours, ChronoUnit.HOURS);
+        int deleted = 0;
+        List<Path> batch = new ArrayList<>(BATCH_SIZE);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root)) {
+            for (Path file : files) {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attrs.isRegularFile() || attrs.lastModifiedTime().toInstant().isAfter(cutoff))
+                    continue;
+                batch.add(file);
+                if (batch.size() == BATCH_SIZE) {
+                    deleted += deleteUnreferenced(batch);
+                    batch.clear();
+                }
+            }
+            deleted += deleteUnreferenced(batch);
+        } catch (IOException e) {
+            // partial progress is kept; the rest is picked up next run
+        }
+        return deleted;
+    }
+
+    private int deleteUnreferenced(List<Path> batch) throws IOException {
+        if (batch.isEmpty())
+            return 0;
+        Set<String> referenced = new HashSet<>(submissionRepository.findReferencedFileUrls(
+                batch.stream().map(Path::toString).toList()));
+
+        int deleted = 0;
+        for (Path file : batch) {
+            if (!referenced.contains(file.toString()) && Files.deleteIfExists(file))
+                deleted++;
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,318 @@
+package com.university.portal.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.university.portal.entity.AIFeedback;
+import com.university.portal.entity.AcademicTerm;
+import com.university.portal.entity.ArchivedFile;
+import com.university.portal.entity.FileBlob;
+import com.university.portal.entity.Submission;
+import com.university.portal.entity.SubmissionVersion;
+import com.university.portal.repository.AIFeedbackRepository;
+import com.university.portal.repository.AcademicTermRepository;
+import com.university.portal.repository.ArchivedFileRepository;
+import com.university.portal.repository.FeedbackJobRepository;
+import com.university.portal.repository.FileBlobRepository;
+import com.university.portal.repository.SubmissionLshBucketRepository;
+import com.university.portal.repository.SubmissionRepository;
+import com.university.portal.repository.SubmissionSignatureRepository;
+import com.university.portal.repository.SubmissionVersionRepository;
+import com.university.portal.storage.StorageBackend;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves closed academic terms out of the hot attendance and submissions tables
+ * into gzip-compressed NDJSON files under {@code archive.dir/<termCode>/}.
+ * Each run writes new timestamped files and only then deletes the archived
+ * rows, so a re-run after a partial failure never overwrites earlier output.
+ * Archived data stays readable through {@link #readArchive}, which scans the
+ * files sequentially; submitted files are kept as {@link ArchivedFile} rows
+ * that hold their blob references.
+ */
+@Service
+@RequiredArgsConstructor
+public class TermArchiveService {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final DateTimeFormatter RUN_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final AcademicTermRepository termRepository;
+    private final AttendanceService attendanceService;
+    private final SubmissionRepository submissionRepository;
+    private final AIFeedbackRepository aiFeedbackRepository;
+    private final FeedbackJobRepository feedbackJobRepository;
+    private final SubmissionSignatureRepository signatureRepository;
+    private final SubmissionLshBucketRepository lshBucketRepository;
+    private final SubmissionVersionRepository versionRepository;
+    private final ArchivedFileRepository archivedFileRepository;
+    private final FileBlobRepository fileBlobRepository;
+    private final BlobStore blobStore;
+    private final StorageBackend storage;
+    private final TransactionTemplate transactionTemplate;
+    private final GradeStatsService gradeStatsService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${archive.dir:./archive}")
+    private String archiveDir;
+
+    /** The term containing today, if one is defined. */
+    public Optional<AcademicTerm> currentTerm() {
+        LocalDate today = LocalDate.now();
+        return termRepository.findFirstByStartDateLessThanEqualAndEndDateGreaterThanEqual(today, today);
+    }
+
+    @Scheduled(cron = "${archive.cron:0 30 3 * * SUN}")
+    public void archiveClosedTerms() {
+        for (AcademicTerm term : termRepository.findByStatus(AcademicTerm.Status.CLOSED)) {
+            archiveTerm(term);
+        }
+    }
+
+    public synchronized Map<String, Object> archiveTerm(AcademicTerm term) {
+        if (term.getStatus() != AcademicTerm.Status.CLOSED) {
+            throw new IllegalStateException("Only closed terms can be archived");
+        }
+
+        try {
+            Path termDir = Paths.get(archiveDir, term.getCode());
+            Files.createDirectories(termDir);
+            String run = LocalDateTime.now().format(RUN_FORMAT);
+
+            long attendanceRows = archiveAttendance(term, termDir.resolve("attendance-" + run + ".ndjson.gz"));
+            long submissionRows = archiveSubmissions(term, termDir.resolve("submissions-" + run + ".ndjson.gz"));
+
+            term.setStatus(AcademicTerm.Status.ARCHIVED);
+            term.setArchivedAt(LocalDateTime.now());
+            termRepository.save(term);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("term", term.getCode());
+            result.put("attendance", attendanceRows);
+            result.put("submissions", submissionRows);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Archiving term " + term.getCode() + " failed", e);
+        }
+    }
+
+    /**
+     * Slow path for historical reads: scans every archive file of the given kind
+     * ("attendance" or "submissions") for the term and returns matching lines.
+     */
+    public List<Map<String, Object>> readArchive(String termCode, String kind, Predicate<Map<String, Object>> filter,
+            int limit) throws IOException {
+        Path termDir = Paths.get(archiveDir, termCode);
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (!Files.isDirectory(termDir))
+            return result;
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(termDir)) {
+            files = list.filter(p -> p.getFileName().toString().startsWith(kind + "-"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        TypeReference<Map<String, Object>> lineType = new TypeReference<>() {
+        };
+        for (Path file : files) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Map<String, Object> row = objectMapper.readValue(line, lineType);
+                    if (filter.test(row)) {
+                        result.add(row);
+                        if (result.size() >= limit)
+                            return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private long archiveAttendance(AcademicTerm term, Path target) throws IOException {
+        long[] count = { 0 };
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (Writer out = gzipWriter(tmp)) {
+            for (String courseId : attendanceService.findCourseIdsBetween(term.getStartDate(), term.getEndDate())) {
+                attendanceService.streamCourseAttendance(courseId, term.getStartDate(), term.getEndDate(), a -> {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("courseId", a.getCourseId());
+                    line.put("studentId", a.getStudentId());
+                    line.put("studentName", a.getStudentName());
+                    line.put("facultyId", a.getFacultyId());
+                    line.put("date", a.getDate().toString());
+                    line.put("status", a.getStatus());
+                    writeLine(out, line);
+                    count[0]++;
+                });
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+
+        attendanceService.deleteBetween(term.getStartDate(), term.getEndDate());
+        // Summaries should only reflect data still in the hot tables
+        attendanceService.rebuildSummaries();
+        return count[0];
+    }
+
+    private long archiveSubmissions(AcademicTerm term, Path target) throws IOException {
+        LocalDateTime from = term.getStartDate().atStartOfDay();
+        LocalDateTime to = term.getEndDate().plusDays(1).atStartOfDay().minusNanos(1);
+        List<Long> archivedIds = new ArrayList<>();
+        Map<Long, Submission> archived = new HashMap<>();
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (Writer out = gzipWriter(tmp)) {
+            long lastId = 0;
+            List<Submission> page;
+            do {
+                page = submissionRepository.findBySubmittedAtBetweenAndIdGreaterThanOrderByIdAsc(from, to, lastId,
+                        PageRequest.of(0, PAGE_SIZE));
+                if (page.isEmpty())
+                    break;
+
+                List<Long> ids = page.stream().map(Submission::getId).collect(Collectors.toList());
+                Map<Long, AIFeedback> feedback = aiFeedbackRepository.findBySubmissionIdIn(ids).stream()
+                        .collect(Collectors.toMap(AIFeedback::getSubmissionId, f -> f, (a, b) -> a));
+
+                for (Submission s : page) {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("id", s.getId());
+                    line.put("assignmentId", s.getAssignmentId());
+                    line.put("studentId", s.getStudentId());
+                    line.put("courseId", s.getCourseId());
+                    line.put("fileUrl", s.getFileUrl());
+                    line.put("fileName", s.getFileName());
+                    line.put("status", s.getStatus().name());
+                    line.put("score", s.getScore());
+                    line.put("submittedAt", s.getSubmittedAt() != null ? s.getSubmittedAt().toString() : null);
+                    line.put("feedback", feedback.get(s.getId()));
+                    writeLine(out, line);
+                }
+
+                archivedIds.addAll(ids);
+                for (Submission s : page) {
+                    if (s.getBlobDigest() != null || s.getFileUrl() != null)
+                        archived.put(s.getId(), s);
+                }
+                lastId = ids.get(ids.size() - 1);
+            } while (page.size() == PAGE_SIZE);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+
+        for (int i = 0; i < archivedIds.size(); i += PAGE_SIZE) {
+            List<Long> chunk = archivedIds.subList(i, Math.min(i + PAGE_SIZE, archivedIds.size()));
+            transactionTemplate.executeWithoutResult(status -> removeSubmissions(term, chunk, archived));
+        }
+        if (!archivedIds.isEmpty()) {
+            gradeStatsService.rebuild();
+        }
+        return archivedIds.size();
+    }
+
+    /**
+     * Deletes one chunk of archived submissions in a single transaction. Their
+     * file references move to {@link ArchivedFile} rows instead of being
+     * released, so the submitted files stay downloadable; a legacy file with no
+     * blob is copied into the blob store first.
+     */
+    private void removeSubmissions(AcademicTerm term, List<Long> chunk, Map<Long, Submission> archived) {
+        aiFeedbackRepository.deleteBySubmissionIdIn(chunk);
+        feedbackJobRepository.deleteBySubmissionIdIn(chunk);
+        signatureRepository.deleteBySubmissionIdIn(chunk);
+        lshBucketRepository.deleteBySubmissionIdIn(chunk);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedFile> files = new ArrayList<>();
+        List<SubmissionVersion> versions = versionRepository.findBySubmissionIdIn(chunk);
+        for (SubmissionVersion v : versions) {
+            Submission s = archived.get(v.getSubmissionId());
+            files.add(ArchivedFile.builder()
+                    .termCode(term.getCode())
+                    .submissionId(v.getSubmissionId())
+                    .studentId(s != null ? s.getStudentId() : null)
+                    .version(v.getVersion())
+                    .blobDigest(v.getBlobDigest())
+                    .fileName(v.getFileName())
+                    .size(v.getSize())
+                    .submittedAt(v.getSubmittedAt())
+                    .archivedAt(now)
+                    .build());
+        }
+
+        // Rows uploaded before versioning hold their reference on the submission itself
+        Set<Long> versioned = versions.stream().map(SubmissionVersion::getSubmissionId).collect(Collectors.toSet());
+        for (Long id : chunk) {
+            Submission s = archived.get(id);
+            if (s == null || versioned.contains(id))
+                continue;
+            FileBlob blob = currentBlob(s);
+            if (blob != null) {
+                files.add(ArchivedFile.builder()
+                        .termCode(term.getCode())
+                        .submissionId(id)
+                        .studentId(s.getStudentId())
+                        .version(1)
+                        .blobDigest(blob.getDigest())
+                        .fileName(s.getFileName())
+                        .size(blob.getSize())
+                        .submittedAt(s.getSubmittedAt())
+                        .archivedAt(now)
+                        .build());
+            }
+        }
+
+        archivedFileRepository.saveAll(files);
+        versionRepository.deleteAllInBatch(versions);
+        submissionRepository.deleteAllByIdInBatch(chunk);
+    }
+
+    private FileBlob currentBlob(Submission s) {
+        if (s.getBlobDigest() != null)
+            return fileBlobRepository.findByDigest(s.getBlobDigest()).orElse(null);
+
+        Optional<Path> legacy = storage.localPath(s.getFileUrl()).filter(Files::isRegularFile);
+        if (legacy.isEmpty())
+            return null;
+        try {
+            return blobStore.adoptCopy(s.getFileUrl(), legacy.get());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Archiving file of submission " + s.getId() + " failed", e);
+        }
+    }
+
+    private Writer gzipWriter(Path path) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(path)), StandardCharsets.UTF_8));
+    }
+
+    private void writeLine(Writer out, Map<String, Object> line) {
+        try {
+            out.write(objectMapper.writeValueAsString(line));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
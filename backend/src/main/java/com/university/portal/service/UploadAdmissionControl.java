@@ -0,0 +1,125 @@
+package com.university.portal.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps concurrent upload writes per node. Requests beyond the cap wait in a
+ * short FIFO queue (fair semaphore); when the queue is full, or a request has
+ * waited too long, it is turned away immediately so uploads cannot tie up
+ * every servlet thread near a deadline.
+ */
+@Service
+public class UploadAdmissionControl {
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitMs;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger peakQueued = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+    private final AtomicLong rejectedTimeout = new AtomicLong();
+    private final AtomicLong totalWaitMs = new AtomicLong();
+    private final AtomicLong maxWaitObservedMs = new AtomicLong();
+    private volatile double avgHoldMs = 1000; // moving average of how long an upload keeps its permit
+
+    public UploadAdmissionControl(
+            @Value("${upload.admission.max-concurrent:8}") int maxConcurrent,
+            @Value("${upload.admission.max-queue:32}") int maxQueue,
+            @Value("${upload.admission.max-wait-ms:2000}") long maxWaitMs) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    /**
+     * Waits for a write slot. Returns a permit to close when the upload is done,
+     * or null if the request should be rejected with 429.
+     */
+    public Permit tryAdmit() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            admitted.incrementAndGet();
+            return new Permit(System.nanoTime());
+        }
+
+        int depth = queued.incrementAndGet();
+        if (depth > maxQueue) {
+            queued.decrementAndGet();
+            rejectedQueueFull.incrementAndGet();
+            return null;
+        }
+        peakQueued.accumulateAndGet(depth, Math::max);
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } finally {
+            queued.decrementAndGet();
+        }
+
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        totalWaitMs.addAndGet(waitedMs);
+        maxWaitObservedMs.accumulateAndGet(waitedMs, Math::max);
+        if (!acquired) {
+            rejectedTimeout.incrementAndGet();
+            return null;
+        }
+        admitted.incrementAndGet();
+        return new Permit(System.nanoTime());
+    }
+
+    /** Seconds a rejected client should wait: time to drain the current queue at the observed upload rate. */
+    public long retryAfterSeconds() {
+        double drainMs = avgHoldMs * (queued.get() + 1) / maxConcurrent;
+        return Math.max(1, Math.min(60, (long) Math.ceil(drainMs / 1000)));
+    }
+
+    public Map<String, Object> metrics() {
+        long waits = admitted.get() + rejectedTimeout.get();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("maxConcurrent", maxConcurrent);
+        map.put("maxQueue", maxQueue);
+        map.put("maxWaitMs", maxWaitMs);
+        map.put("inFlight", maxConcurrent - permits.availablePermits());
+        map.put("queueDepth", queued.get());
+        map.put("peakQueueDepth", peakQueued.get());
+        map.put("admitted", admitted.get());
+        map.put("rejectedQueueFull", rejectedQueueFull.get());
+        map.put("rejectedTimeout", rejectedTimeout.get());
+        map.put("avgWaitMs", waits > 0 ? totalWaitMs.get() / waits : 0);
+        map.put("maxWaitObservedMs", maxWaitObservedMs.get());
+        map.put("avgUploadMs", Math.round(avgHoldMs));
+        return map;
+    }
+
+    public final class Permit implements AutoCloseable {
+        private final long acquiredAt;
+        private boolean released;
+
+        private Permit(long acquiredAt) {
+            this.acquiredAt = acquiredAt;
+        }
+
+        @Override
+        public void close() {
+            if (released)
+                return;
+            released = true;
+            double heldMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - acquiredAt);
+            avgHoldMs = avgHoldMs * 0.9 + heldMs * 0.1;
+            permits.release();
+        }
+    }
+}
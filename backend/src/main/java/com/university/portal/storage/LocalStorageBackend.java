@@ -0,0 +1,84 @@
+package com.university.portal.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Keeps objects under {@code file.upload-dir}. Keys written before storage
+ * became pluggable are full paths that already start with that directory;
+ * they resolve to themselves.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalStorageBackend implements StorageBackend {
+
+    private final Path root;
+
+    public LocalStorageBackend(@Value("${file.upload-dir}") String uploadDir) {
+        this.root = Paths.get(uploadDir);
+    }
+
+    @Override
+    public void putFile(String key, Path staged) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        // Staging lives under the same root, so this is a rename
+        Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        return Files.size(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(resolve(key));
+    }
+
+    @Override
+    public Optional<URI> presignedGetUrl(String key, String downloadName, Duration ttl) {
+        return Optional.empty(); // served by this node with sendfile instead
+    }
+
+    @Override
+    public void copy(String sourceKey, String targetKey) throws IOException {
+        Path target = resolve(targetKey);
+        Files.createDirectories(target.getParent());
+        Files.copy(resolve(sourceKey), target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path resolve(String key) {
+        Path path = Paths.get(key);
+        if (path.isAbsolute() || path.startsWith(root))
+            return path;
+        Path resolved = root.resolve(path).normalize();
+        if (!resolved.startsWith(root.normalize())) {
+            throw new IllegalArgumentException("Storage key escapes the upload directory: " + key);
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,352 @@
+package com.university.portal.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * S3-compatible object storage (AWS S3, MinIO, Ceph RGW) over plain HTTP with
+ * SigV4 signing and path-style addressing, so a local MinIO container works as
+ * a stand-in. Bodies are streamed in both directions; payloads are sent as
+ * UNSIGNED-PAYLOAD so files do not have to be hashed twice. Chunked uploads
+ * are assembled by the store with a multipart upload.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "s3")
+public class S3StorageBackend implements StorageBackend {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final DateTimeFormatter SCOPE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final URI endpoint;
+    private final String bucket;
+    private final String region;
+    private final String accessKey;
+    private final String secretKey;
+    private final HttpClient client;
+
+    public S3StorageBackend(
+            @Value("${file.storage.s3.endpoint}") String endpoint,
+            @Value("${file.storage.s3.bucket}") String bucket,
+            @Value("${file.storage.s3.region:us-east-1}") String region,
+            @Value("${file.storage.s3.access-key}") String accessKey,
+            @Value("${file.storage.s3.secret-key}") String secretKey) {
+        this.endpoint = URI.create(endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint);
+        this.bucket = bucket;
+        this.region = region;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    @Override
+    public void putFile(String key, Path staged) throws IOException {
+        HttpRequest request = signed("PUT", key, HttpRequest.newBuilder()
+                .header("Content-Type", "application/octet-stream"))
+                .PUT(HttpRequest.BodyPublishers.ofFile(staged))
+                .build();
+        expectSuccess("PUT " + key, send(request, HttpResponse.BodyHandlers.ofString()));
+        Files.deleteIfExists(staged);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        HttpResponse<InputStream> response = send(signed("GET", key, HttpRequest.newBuilder()).GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("GET " + key + " failed: HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return head(key).isPresent();
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        HttpResponse<Void> response = head(key).orElseThrow(() -> new IOException("No such object: " + key));
+        return response.headers().firstValueAsLong("Content-Length")
+                .orElseThrow(() -> new IOException("No Content-Length for " + key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<Void> response = send(signed("DELETE", key, HttpRequest.newBuilder()).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2 && response.statusCode() != 404) {
+            throw new IOException("DELETE " + key + " failed: HTTP " + response.statusCode());
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    /** SigV4 query-string presigned GET; the store itself then handles ranges and conditional requests. */
+    @Override
+    public Optional<URI> presignedGetUrl(String key, String downloadName, Duration ttl) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        String amzDate = now.format(AMZ_DATE);
+        String scope = now.format(SCOPE_DATE) + "/" + region + "/s3/aws4_request";
+
+        SortedMap<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + "/" + scope);
+        query.put("X-Amz-Date", amzDate);
+        query.put("X-Amz-Expires", String.valueOf(ttl.toSeconds()));
+        query.put("X-Amz-SignedHeaders", "host");
+        if (downloadName != null) {
+            query.put("response-content-disposition", "attachment; filename=\"" + downloadName.replace("\"", "") + "\"");
+        }
+        String canonicalQuery = canonicalQuery(query);
+
+        String canonicalRequest = "GET\n" + objectPath(key) + "\n" + canonicalQuery + "\n"
+                + "host:" + hostHeader() + "\n\nhost\n" + UNSIGNED_PAYLOAD;
+        String signature = signature(now, scope, amzDate, canonicalRequest);
+
+        return Optional.of(URI.create(origin() + objectPath(key) + "?" + canonicalQuery
+                + "&X-Amz-Signature=" + signature));
+    }
+
+    /** Server-side copy, so the bytes never pass through this node. */
+    @Override
+    public void copy(String sourceKey, String targetKey) throws IOException {
+        HttpRequest request = signed("PUT", targetKey, new TreeMap<>(),
+                Map.of("x-amz-copy-source", bucketPath(sourceKey)), HttpRequest.newBuilder())
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+        expectSuccess("COPY " + sourceKey + " to " + targetKey, send(request, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    @Override
+    public boolean supportsMultipart() {
+        return true;
+    }
+
+    @Override
+    public String createMultipart(String key) throws IOException {
+        SortedMap<String, String> query = new TreeMap<>();
+        query.put("uploads", "");
+        HttpRequest request = signed("POST", key, query, Map.of(), HttpRequest.newBuilder())
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
+        expectSuccess("Starting multipart upload of " + key, response);
+        return xmlElement(response.body(), "UploadId")
+                .orElseThrow(() -> new IOException("No UploadId returned for " + key));
+    }
+
+    /** Parts other than the last must be at least 5 MiB on AWS S3 and MinIO. */
+    @Override
+    public String putPart(String key, String uploadId, int partNumber, InputStream content, long length)
+            throws IOException {
+        SortedMap<String, String> query = new TreeMap<>();
+        query.put("partNumber", String.valueOf(partNumber));
+        query.put("uploadId", uploadId);
+        HttpRequest request = signed("PUT", key, query, Map.of(), HttpRequest.newBuilder()
+                .header("Content-Type", "application/octet-stream"))
+                .PUT(HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(() -> content),
+                        length))
+                .build();
+        HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
+        expectSuccess("PUT part " + partNumber + " of " + key, response);
+        return response.headers().firstValue("ETag")
+                .orElseThrow(() -> new IOException("No ETag returned for part " + partNumber + " of " + key));
+    }
+
+    @Override
+    public void completeMultipart(String key, String uploadId, List<String> partEtags) throws IOException {
+        StringBuilder body = new StringBuilder("<CompleteMultipartUpload>");
+        for (int i = 0; i < partEtags.size(); i++) {
+            body.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                    .append(partEtags.get(i)).append("</ETag></Part>");
+        }
+        body.append("</CompleteMultipartUpload>");
+
+        SortedMap<String, String> query = new TreeMap<>();
+        query.put("uploadId", uploadId);
+        HttpRequest request = signed("POST", key, query, Map.of(), HttpRequest.newBuilder()
+                .header("Content-Type", "application/xml"))
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        expectSuccess("Completing multipart upload of " + key, send(request, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    @Override
+    public void abortMultipart(String key, String uploadId) throws IOException {
+        SortedMap<String, String> query = new TreeMap<>();
+        query.put("uploadId", uploadId);
+        HttpResponse<Void> response = send(signed("DELETE", key, query, Map.of(), HttpRequest.newBuilder())
+                .DELETE().build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2 && response.statusCode() != 404) {
+            throw new IOException("Aborting multipart upload of " + key + " failed: HTTP " + response.statusCode());
+        }
+    }
+
+    private Optional<HttpResponse<Void>> head(String key) throws IOException {
+        HttpResponse<Void> response = send(signed("HEAD", key, HttpRequest.newBuilder())
+                .method("HEAD", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404)
+            return Optional.empty();
+        if (response.statusCode() != 200) {
+            throw new IOException("HEAD " + key + " failed: HTTP " + response.statusCode());
+        }
+        return Optional.of(response);
+    }
+
+    private HttpRequest.Builder signed(String method, String key, HttpRequest.Builder builder) {
+        return signed(method, key, new TreeMap<>(), Map.of(), builder);
+    }
+
+    /**
+     * Adds SigV4 header authentication for a request on {@code key}. S3 rejects
+     * unsigned {@code x-amz-*} headers, so any extra ones are passed in
+     * {@code amzHeaders} (lower-case names) to be signed and set here.
+     */
+    private HttpRequest.Builder signed(String method, String key, SortedMap<String, String> query,
+            Map<String, String> amzHeaders, HttpRequest.Builder builder) {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        String amzDate = now.format(AMZ_DATE);
+        String scope = now.format(SCOPE_DATE) + "/" + region + "/s3/aws4_request";
+
+        SortedMap<String, String> headers = new TreeMap<>(amzHeaders);
+        headers.put("host", hostHeader());
+        headers.put("x-amz-content-sha256", UNSIGNED_PAYLOAD);
+        headers.put("x-amz-date", amzDate);
+        StringBuilder canonicalHeaders = new StringBuilder();
+        headers.forEach((name, value) -> canonicalHeaders.append(name).append(':').append(value).append('\n'));
+        String signedHeaders = String.join(";", headers.keySet());
+        String canonicalQuery = canonicalQuery(query);
+
+        String canonicalRequest = method + "\n" + objectPath(key) + "\n" + canonicalQuery + "\n"
+                + canonicalHeaders + "\n"
+                + signedHeaders + "\n" + UNSIGNED_PAYLOAD;
+        String signature = signature(now, scope, amzDate, canonicalRequest);
+
+        builder.uri(URI.create(origin() + objectPath(key) + (canonicalQuery.isEmpty() ? "" : "?" + canonicalQuery)))
+                .timeout(Duration.ofMinutes(5))
+                .header("Authorization", ALGORITHM + " Credential=" + accessKey + "/" + scope
+                        + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+        headers.forEach((name, value) -> {
+            if (!name.equals("host")) // set by the client from the URI
+                builder.header(name, value);
+        });
+        return builder;
+    }
+
+    private String signature(ZonedDateTime now, String scope, String amzDate, String canonicalRequest) {
+        try {
+            String stringToSign = ALGORITHM + "\n" + amzDate + "\n" + scope + "\n"
+                    + hex(MessageDigest.getInstance("SHA-256").digest(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+            byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), now.format(SCOPE_DATE));
+            key = hmac(key, region);
+            key = hmac(key, "s3");
+            key = hmac(key, "aws4_request");
+            return hex(hmac(key, stringToSign));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return client.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted talking to object storage");
+        }
+    }
+
+    private String objectPath(String key) {
+        return endpoint.getRawPath() + bucketPath(key);
+    }
+
+    private String bucketPath(String key) {
+        StringBuilder path = new StringBuilder("/").append(encode(bucket));
+        for (String segment : key.split("/")) {
+            path.append('/').append(encode(segment));
+        }
+        return path.toString();
+    }
+
+    // S3 can report a failure in the body of a 200 response to copy and complete requests
+    private static void expectSuccess(String action, HttpResponse<String> response) throws IOException {
+        if (response.statusCode() / 100 != 2 || response.body().contains("<Error>")) {
+            throw new IOException(action + " failed: HTTP " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private static Optional<String> xmlElement(String xml, String name) {
+        int start = xml.indexOf("<" + name + ">");
+        int end = start < 0 ? -1 : xml.indexOf("</" + name + ">", start);
+        return end < 0 ? Optional.empty() : Optional.of(xml.substring(start + name.length() + 2, end));
+    }
+
+    private String origin() {
+        return endpoint.getScheme() + "://" + endpoint.getRawAuthority();
+    }
+
+    private String hostHeader() {
+        int port = endpoint.getPort();
+        boolean defaultPort = port == -1 || ("http".equals(endpoint.getScheme()) && port == 80)
+                || ("https".equals(endpoint.getScheme()) && port == 443);
+        return defaultPort ? endpoint.getHost() : endpoint.getHost() + ":" + port;
+    }
+
+    private static String canonicalQuery(SortedMap<String, String> params) {
+        StringJoiner joiner = new StringJoiner("&");
+        params.forEach((k, v) -> joiner.add(encode(k) + "=" + encode(v)));
+        return joiner.toString();
+    }
+
+    // RFC 3986 encoding as SigV4 requires: everything but unreserved characters
+    private static String encode(String value) {
+        StringBuilder out = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~') {
+                out.append(c);
+            } else {
+                out.append('%').append(String.format("%02X", b & 0xff));
+            }
+        }
+        return out.toString();
+    }
+
+    private static byte[] hmac(byte[] key, String data) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
@@ -0,0 +1,72 @@
+package com.university.portal.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where uploaded files live. Objects are addressed by slash-separated keys such
+ * as {@code blobs/ab/cd/<sha256>}. Uploads are staged on local disk first
+ * (see {@code BlobStore#tmpDir()}) and handed over with {@link #putFile}, except
+ * chunked uploads to a backend that {@link #supportsMultipart() assembles parts}
+ * itself, whose chunks are streamed straight through.
+ */
+public interface StorageBackend {
+
+    /** Stores a fully written local file under {@code key}. The staged file is consumed. */
+    void putFile(String key, Path staged) throws IOException;
+
+    /** Streams an object's content; the caller closes the stream. */
+    InputStream get(String key) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    long size(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /** The object as a local file, when the backend keeps it on this node's disk (enables sendfile). */
+    Optional<Path> localPath(String key);
+
+    /** A time-limited URL the client can download from directly, if the backend supports it. */
+    Optional<URI> presignedGetUrl(String key, String downloadName, Duration ttl);
+
+    /** Copies an object to another key. */
+    void copy(String sourceKey, String targetKey) throws IOException;
+
+    /**
+     * Whether the multipart methods below are available, so an object can be
+     * assembled from parts sent by different nodes.
+     */
+    default boolean supportsMultipart() {
+        return false;
+    }
+
+    /** Starts assembling the object under {@code key} from parts and returns the upload id. */
+    default String createMultipart(String key) throws IOException {
+        throw new UnsupportedOperationException("Multipart uploads are not supported");
+    }
+
+    /**
+     * Streams part {@code partNumber} (1-based) of exactly {@code length} bytes
+     * and returns its entity tag. Sending a part number again replaces it.
+     */
+    default String putPart(String key, String uploadId, int partNumber, InputStream content, long length)
+            throws IOException {
+        throw new UnsupportedOperationException("Multipart uploads are not supported");
+    }
+
+    /** Joins the parts, given by their entity tags in part order, into the object under {@code key}. */
+    default void completeMultipart(String key, String uploadId, List<String> partEtags) throws IOException {
+        throw new UnsupportedOperationException("Multipart uploads are not supported");
+    }
+
+    /** Discards an unfinished multipart upload and its parts; unknown ids are ignored. */
+    default void abortMultipart(String key, String uploadId) throws IOException {
+        throw new UnsupportedOperationException("Multipart uploads are not supported");
+    }
+}
@@ -0,0 +1,50 @@
+package com.university.portal.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringListJsonConverterTest {
+
+    private final StringListJsonConverter converter = new StringListJsonConverter();
+
+    @Test
+    void roundTripsValuesContainingCommasAndQuotes() {
+        List<String> values = List.of("Replace \"could of\" with \"could have\" (line 3).", "Cite sources, then explain.");
+
+        String column = converter.convertToDatabaseColumn(values);
+
+        assertTrue(column.startsWith("[\""), column);
+        assertEquals(values, converter.convertToEntityAttribute(column));
+    }
+
+    @Test
+    void storesNullAsNull() {
+        assertNull(converter.convertToDatabaseColumn(null));
+    }
+
+    @Test
+    void readsMissingValuesAsEmptyList() {
+        assertEquals(List.of(), converter.convertToEntityAttribute(null));
+        assertEquals(List.of(), converter.convertToEntityAttribute("  "));
+        assertEquals(List.of(), converter.convertToEntityAttribute("[]"));
+    }
+
+    @Test
+    void readsLegacyToStringRows() {
+        assertEquals(List.of("Add more detail", "Check grammar"),
+                converter.convertToEntityAttribute("[Add more detail, Check grammar]"));
+        assertEquals(List.of("Single suggestion"), converter.convertToEntityAttribute("[Single suggestion]"));
+        assertEquals(List.of("Unbracketed", "value"), converter.convertToEntityAttribute("Unbracketed, value"));
+    }
+
+    @Test
+    void returnedListIsMutable() {
+        List<String> values = converter.convertToEntityAttribute("[\"a\"]");
+        values.add("b");
+
+        assertEquals(List.of("a", "b"), values);
+    }
+}
@@ -0,0 +1,74 @@
+package com.university.portal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitmapCodecTest {
+
+    @Test
+    void roundTripsEmptyBitmap() {
+        assertEquals(new BitSet(), BitmapCodec.decode(BitmapCodec.encode(new BitSet())));
+        assertEquals(new BitSet(), BitmapCodec.decode(new byte[0]));
+    }
+
+    @Test
+    void compressesLongRuns() {
+        BitSet bits = new BitSet();
+        bits.set(0, AttendanceBitmapStore.MAX_SLOTS);
+        bits.clear(40_000);
+
+        byte[] encoded = BitmapCodec.encode(bits);
+
+        assertEquals(BitmapCodec.RUNS, encoded[0]);
+        assertTrue(encoded.length < 12, "encoded to " + encoded.length + " bytes");
+        assertEquals(bits, BitmapCodec.decode(encoded));
+    }
+
+    @Test
+    void fallsBackToRawForScatteredBits() {
+        BitSet bits = new BitSet();
+        for (int i = 0; i < 4096; i += 2) {
+            bits.set(i);
+        }
+
+        byte[] encoded = BitmapCodec.encode(bits);
+
+        assertEquals(BitmapCodec.RAW, encoded[0]);
+        assertEquals(bits.toByteArray().length + 1, encoded.length);
+        assertEquals(bits, BitmapCodec.decode(encoded));
+    }
+
+    @Test
+    void worstCaseFitsTheColumn() {
+        BitSet bits = new BitSet();
+        for (int i = 1; i < AttendanceBitmapStore.MAX_SLOTS; i += 2) {
+            bits.set(i);
+        }
+
+        assertTrue(BitmapCodec.encode(bits).length <= AttendanceBitmapStore.MAX_SLOTS / 8 + 1);
+    }
+
+    @Test
+    void roundTripsRandomBitmaps() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int n = 0; n < 200; n++) {
+            BitSet bits = new BitSet();
+            int size = random.nextInt(1, 20_000);
+            double density = random.nextDouble();
+            for (int i = 0; i < size; i++) {
+                if (random.nextDouble() < density)
+                    bits.set(i);
+            }
+            assertEquals(bits, BitmapCodec.decode(BitmapCodec.encode(bits)));
+        }
+    }
+
+    @Test
+    void rejectsUnknownTag() {
+        assertThrows(IllegalArgumentException.class, () -> BitmapCodec.decode(new byte[] { 7, 1 }));
+    }
+}
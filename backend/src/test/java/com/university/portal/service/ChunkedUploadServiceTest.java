@@ -0,0 +1,190 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.FileBlob;
+import com.university.portal.entity.Submission;
+import com.university.portal.entity.UploadSession;
+import com.university.portal.repository.UploadSessionRepository;
+import com.university.portal.storage.StorageBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Commit retries after a rolled-back attach, and chunks streamed to a store
+ * that assembles multipart uploads. Transactions are simulated with
+ * transaction synchronization: clearing it is a rollback, running the
+ * registered afterCommit callbacks is a commit.
+ */
+class ChunkedUploadServiceTest {
+
+    private static final byte[] CONTENT = "chunked upload content".getBytes(StandardCharsets.UTF_8);
+
+    private final UploadSessionRepository sessionRepository = mock(UploadSessionRepository.class);
+    private final BlobStore blobStore = mock(BlobStore.class);
+    private final SubmissionService submissionService = mock(SubmissionService.class);
+    private final StorageBackend storage = mock(StorageBackend.class);
+    private final ChunkedUploadService service = new ChunkedUploadService(sessionRepository, blobStore,
+            submissionService, storage);
+
+    private final List<String> adopted = new ArrayList<>();
+    private Path tmpDir;
+    private Path part;
+    private UploadSession session;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tmpDir = Files.createTempDirectory("chunked-test");
+        part = Files.write(tmpDir.resolve("chunked-upload.part"), CONTENT);
+        session = UploadSession.builder()
+                .uploadId("upload")
+                .courseId("CS101")
+                .assignmentId(7L)
+                .studentId("S1")
+                .fileName("essay.txt")
+                .totalSize(CONTENT.length)
+                .receivedBytes(CONTENT.length)
+                .partPath(part.toString())
+                .status(UploadSession.Status.OPEN)
+                .build();
+
+        when(sessionRepository.findForUpdateByUploadId("upload")).thenReturn(Optional.of(session));
+        when(sessionRepository.save(any(UploadSession.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(blobStore.tmpDir()).thenReturn(tmpDir);
+        // Like the real store, adopting moves the staged file away
+        when(blobStore.adopt(any(Path.class))).thenAnswer(inv -> {
+            Path staged = inv.getArgument(0);
+            adopted.add(new String(Files.readAllBytes(staged), StandardCharsets.UTF_8));
+            Files.delete(staged);
+            return FileBlob.builder().digest("d1").size(CONTENT.length).build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+        try (Stream<Path> files = Files.walk(tmpDir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    @Test
+    void commitRetriedAfterFailedAttachFindsPartFile() throws IOException {
+        Submission submission = Submission.builder().id(42L).build();
+        when(submissionService.attach(anyString(), eq(7L), anyString(), anyString(), any(FileBlob.class)))
+                .thenThrow(new CannotAcquireLockException("deadlock"))
+                .thenReturn(submission);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThrows(CannotAcquireLockException.class, () -> service.commit("upload"));
+        TransactionSynchronizationManager.clearSynchronization(); // rolled back
+
+        assertTrue(Files.exists(part), "part file kept after rollback");
+        assertEquals(UploadSession.Status.OPEN, session.getStatus());
+
+        TransactionSynchronizationManager.initSynchronization();
+        UploadSession committed = service.commit("upload");
+        assertTrue(Files.exists(part), "part file kept until the commit holds");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(UploadSession.Status.COMMITTED, committed.getStatus());
+        assertEquals(42L, committed.getSubmissionId());
+        assertFalse(Files.exists(part), "part file removed after commit");
+        assertEquals(List.of(new String(CONTENT, StandardCharsets.UTF_8), new String(CONTENT, StandardCharsets.UTF_8)),
+                adopted);
+        try (Stream<Path> left = Files.list(tmpDir)) {
+            assertEquals(0, left.count(), "no staged links left behind");
+        }
+    }
+
+    @Test
+    void failedAdoptRemovesStagedLinkButKeepsPartFile() throws IOException {
+        doThrow(new IOException("disk full")).when(blobStore).adopt(any(Path.class));
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThrows(IOException.class, () -> service.commit("upload"));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        try (Stream<Path> left = Files.list(tmpDir)) {
+            assertEquals(List.of(part), left.toList());
+        }
+        verifyNoInteractions(submissionService);
+    }
+
+    @Test
+    void multipartChunksAreStreamedAsPartsAndJoinedOnCommit() throws IOException {
+        ReflectionTestUtils.setField(service, "chunkSize", 4L);
+        session.setTotalSize(6);
+        session.setReceivedBytes(0);
+        session.setPartPath("uploads/upload");
+        session.setMultipartId("mp-1");
+        session.setPartEtags(new ArrayList<>());
+        when(sessionRepository.findByUploadId("upload")).thenReturn(Optional.of(session));
+        List<String> parts = new ArrayList<>();
+        when(storage.putPart(eq("uploads/upload"), eq("mp-1"), anyInt(), any(InputStream.class), anyLong()))
+                .thenAnswer(inv -> {
+                    InputStream in = inv.getArgument(3);
+                    parts.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                    return "\"etag-" + inv.getArgument(2) + "\"";
+                });
+
+        service.appendChunk("upload", 0, stream("abcd"), 4, null);
+        assertThrows(IllegalArgumentException.class, () -> service.appendChunk("upload", 4, stream("e"), 1, null));
+        assertThrows(IllegalArgumentException.class, () -> service.appendChunk("upload", 4, stream("ef"), -1, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.appendChunk("upload", 4, stream("ef"), 2, "00".repeat(32)));
+        assertEquals(4, session.getReceivedBytes());
+        assertEquals(List.of("\"etag-1\""), session.getPartEtags(), "mismatched part not recorded");
+
+        service.appendChunk("upload", 4, stream("ef"), 2, null);
+        assertEquals(6, session.getReceivedBytes());
+        assertEquals(List.of("abcd", "ef", "ef"), parts);
+
+        FileBlob blob = FileBlob.builder().digest("d2").size(6).build();
+        when(blobStore.adoptObject("uploads/upload")).thenReturn(blob);
+        when(submissionService.attach("CS101", 7L, "S1", "essay.txt", blob))
+                .thenReturn(Submission.builder().id(43L).build());
+
+        TransactionSynchronizationManager.initSynchronization();
+        UploadSession committed = service.commit("upload");
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(43L, committed.getSubmissionId());
+        verify(storage).completeMultipart("uploads/upload", "mp-1", List.of("\"etag-1\"", "\"etag-2\""));
+        verify(blobStore, never()).adopt(any(Path.class));
+        try (Stream<Path> left = Files.list(tmpDir)) {
+            assertEquals(List.of(part), left.toList(), "nothing staged locally");
+        }
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,71 @@
+package com.university.portal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtractedTextServiceTest {
+
+    @Test
+    void collapsesSpacesAndTrimsLines() throws IOException {
+        assertEquals("Hello world\nSecond line", normalize("  Hello \t  world  \r\n   Second\u00A0line  \n"));
+    }
+
+    @Test
+    void keepsParagraphBreaksButNotLongerGaps() throws IOException {
+        assertEquals("One\n\nTwo\nThree", normalize("One\r\n\r\n\r\n\n  \nTwo\rThree"));
+    }
+
+    @Test
+    void dropsControlCharactersAndByteOrderMarks() throws IOException {
+        assertEquals("a b", normalize("\uFEFFa\u0000\u0007b"));
+    }
+
+    @Test
+    void countsWordsAndCharacters() throws IOException {
+        StringBuilder out = new StringBuilder();
+        ExtractedTextService.Stats stats = ExtractedTextService.normalize(
+                new StringReader("It's the student\u2019s 2nd draft -- v1.0"), out, Long.MAX_VALUE);
+
+        assertEquals("It's the student\u2019s 2nd draft -- v1.0", out.toString());
+        assertEquals(out.length(), stats.chars);
+        assertEquals(7, stats.words);
+        assertFalse(stats.truncated);
+    }
+
+    @Test
+    void truncatesAtLimitWithoutTrailingSeparator() throws IOException {
+        StringBuilder out = new StringBuilder();
+        ExtractedTextService.Stats stats = ExtractedTextService.normalize(
+                new StringReader("alpha beta gamma"), out, 11);
+
+        assertEquals("alpha beta", out.toString());
+        assertEquals(10, stats.chars);
+        assertEquals(2, stats.words);
+        assertTrue(stats.truncated);
+    }
+
+    @Test
+    void handlesInputLargerThanTheReadBuffer() throws IOException {
+        String text = "word ".repeat(5000);
+        StringBuilder out = new StringBuilder();
+        ExtractedTextService.Stats stats = ExtractedTextService.normalize(new StringReader(text), out, Long.MAX_VALUE);
+
+        assertEquals(text.strip(), out.toString());
+        assertEquals(5000, stats.words);
+    }
+
+    @Test
+    void emptyInputProducesNothing() throws IOException {
+        assertEquals("", normalize(" \r\n\t "));
+    }
+
+    private static String normalize(String text) throws IOException {
+        StringBuilder out = new StringBuilder();
+        ExtractedTextService.normalize(new StringReader(text), out, Long.MAX_VALUE);
+        return out.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package com.university.portal.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileDownloadServiceTest {
+
+    @Test
+    void parsesClosedRange() {
+        assertArrayEquals(new long[] { 0, 99 }, FileDownloadService.parseRange("bytes=0-99", 1000));
+    }
+
+    @Test
+    void openEndedRangeRunsToLastByte() {
+        assertArrayEquals(new long[] { 500, 999 }, FileDownloadService.parseRange("bytes=500-", 1000));
+    }
+
+    @Test
+    void endPastLengthIsClamped() {
+        assertArrayEquals(new long[] { 900, 999 }, FileDownloadService.parseRange("bytes=900-5000", 1000));
+    }
+
+    @Test
+    void suffixRangeCountsFromTheEnd() {
+        assertArrayEquals(new long[] { 900, 999 }, FileDownloadService.parseRange("bytes=-100", 1000));
+        assertArrayEquals(new long[] { 0, 999 }, FileDownloadService.parseRange("bytes=-5000", 1000));
+    }
+
+    @Test
+    void toleratesWhitespaceAroundBounds() {
+        assertArrayEquals(new long[] { 10, 20 }, FileDownloadService.parseRange("bytes= 10 - 20 ", 1000));
+    }
+
+    @Test
+    void startPastLengthIsUnsatisfiable() {
+        assertNull(FileDownloadService.parseRange("bytes=1000-", 1000));
+        assertNull(FileDownloadService.parseRange("bytes=-0", 1000));
+        assertNull(FileDownloadService.parseRange("bytes=-10", 0));
+    }
+
+    @Test
+    void malformedOrMultipleRangesAreIgnored() {
+        assertEquals(0, FileDownloadService.parseRange("items=0-10", 1000).length);
+        assertEquals(0, FileDownloadService.parseRange("bytes=0-10,20-30", 1000).length);
+        assertEquals(0, FileDownloadService.parseRange("bytes=10", 1000).length);
+        assertEquals(0, FileDownloadService.parseRange("bytes=20-10", 1000).length);
+        assertEquals(0, FileDownloadService.parseRange("bytes=a-b", 1000).length);
+    }
+}
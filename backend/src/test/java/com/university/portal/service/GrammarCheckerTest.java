@@ -0,0 +1,114 @@
+package com.university.portal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrammarCheckerTest {
+
+    private final GrammarChecker checker = new GrammarChecker();
+
+    @Test
+    void cleanTextScoresFull() {
+        GrammarChecker.Result result = checker.check("The algorithm sorts the input. It then merges both halves.\n"
+                + "Each step is linear, so the total cost is O(n log n).");
+
+        assertEquals(100, result.getScore());
+        assertEquals(3, result.getSentences());
+        assertTrue(result.getSuggestions().isEmpty(), result.getSuggestions().toString());
+    }
+
+    @Test
+    void emptyTextHasNoSentences() {
+        GrammarChecker.Result result = checker.check("  \n ");
+
+        assertEquals(100, result.getScore());
+        assertEquals(0, result.getWords());
+        assertTrue(result.getSuggestions().isEmpty());
+    }
+
+    @Test
+    void phraseRulesMatchWholeWordsOnly() {
+        List<String> suggestions = checker.check("We could of done better. The thesis is done.").getSuggestions();
+
+        assertEquals(List.of("Replace \"could of\" with \"could have\" (line 1)."), suggestions);
+    }
+
+    @Test
+    void phraseRulesIgnoreCaseAndSpanLineBreaks() {
+        List<String> suggestions = checker.check("Intro.\nIt is More\nthen enough.").getSuggestions();
+
+        assertEquals(List.of("Replace \"more then\" with \"more than\" (line 3)."), suggestions);
+    }
+
+    @Test
+    void punctuationBreaksPhrases() {
+        assertTrue(checker.check("We could, of course, retry.").getSuggestions().isEmpty());
+    }
+
+    @Test
+    void countsRepeatedOccurrences() {
+        List<String> suggestions = checker.check("I recieve mail. You recieve mail.\nThey recieve mail.").getSuggestions();
+
+        assertEquals(List.of("Replace \"recieve\" with \"receive\" (3 times, first on line 1)."), suggestions);
+    }
+
+    @Test
+    void realWordsAreNotSpellingErrors() {
+        assertTrue(checker.check("Water ran along the trough. Each dependant was listed.").getSuggestions().isEmpty());
+    }
+
+    @Test
+    void flagsRepeatedWordsExceptDeliberateDoublings() {
+        assertEquals(List.of("Remove the repeated word \"the\" (line 1)."),
+                checker.check("We read the the paper. She had had enough.").getSuggestions());
+        assertTrue(checker.check("It is 10 10 percent. We stop. Stop now.").getSuggestions().isEmpty());
+    }
+
+    @Test
+    void flagsArticleBeforeVowel() {
+        assertEquals(List.of("Use \"an\" before a vowel sound, e.g. \"an apple\" (line 1)."),
+                checker.check("He ate a apple. It was a one-off at a university.").getSuggestions());
+    }
+
+    @Test
+    void flagsLowercaseSentenceStartButNotAfterAbbreviations() {
+        assertEquals(List.of("Start every sentence with a capital letter, e.g. \"then\" (line 1)."),
+                checker.check("We test it. then we ship.").getSuggestions());
+        assertTrue(checker.check("Use tools, e.g. grep and sed. Version 3.14 is out. Calls iPhone apps.")
+                .getSuggestions().isEmpty());
+    }
+
+    @Test
+    void flagsLowercasePronoun() {
+        assertEquals(List.of("Capitalise the pronoun \"I\" (line 1)."),
+                checker.check("Today i think it works.").getSuggestions());
+    }
+
+    @Test
+    void flagsRunOnSentences() {
+        String longSentence = "Word, ".repeat(44) + "end.";
+        GrammarChecker.Result result = checker.check(longSentence);
+
+        assertEquals(List.of("Split sentences longer than 40 words (line 1)."), result.getSuggestions());
+        assertEquals(45, result.getWords());
+    }
+
+    @Test
+    void usageErrorsCostMoreThanStyle() {
+        int usage = checker.check("We could of won. It ended. We left.").getScore();
+        int style = checker.check("We did it in order to win. It ended. We left.").getScore();
+
+        assertTrue(usage < style, usage + " vs " + style);
+        assertTrue(style < 100);
+    }
+
+    @Test
+    void capsSuggestions() {
+        String text = "Alot. Wich. Thier. Becuase. Begining. Beleive. Goverment. Untill. Truely. Grammer.";
+
+        assertEquals(8, checker.check(text).getSuggestions().size());
+    }
+}
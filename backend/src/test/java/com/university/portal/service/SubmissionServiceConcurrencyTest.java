@@ -0,0 +1,155 @@
+package com.university.portal.service;
+
+import com.university.portal.entity.FileBlob;
+import com.university.portal.entity.Submission;
+import com.university.portal.entity.SubmissionVersion;
+import com.university.portal.repository.FeedbackJobRepository;
+import com.university.portal.repository.FileBlobRepository;
+import com.university.portal.repository.SubmissionRepository;
+import com.university.portal.repository.SubmissionVersionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parallel uploads for one (student, assignment) against a real MySQL, since
+ * the upsert and row locks are what is under test. The database runs in a
+ * Testcontainers MySQL container; without Docker the test is skipped.
+ */
+@SpringBootTest(properties = {
+        "feedback.jobs.enabled=false",
+        "file.storage.type=local",
+        "file.upload-dir=${java.io.tmpdir}/portal-test-uploads",
+        "spring.datasource.hikari.maximum-pool-size=32"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class SubmissionServiceConcurrencyTest {
+
+    private static final int UPLOADS = 400;
+
+    @Container
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private SubmissionService submissionService;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private SubmissionVersionRepository versionRepository;
+
+    @Autowired
+    private FileBlobRepository blobRepository;
+
+    @Autowired
+    private FeedbackJobRepository feedbackJobRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Value("${submission.versions.retain:5}")
+    private int retainVersions;
+
+    private final String run = UUID.randomUUID().toString();
+    private final String studentId = "TEST-" + run.substring(0, 8);
+    private final Long assignmentId = -Math.abs(run.hashCode() + 1L);
+
+    @Test
+    void parallelUploadsShareOneSubmission() throws Exception {
+        List<String> digests = uploadInParallel();
+
+        List<Submission> rows = submissionRepository.findByStudentIdAndAssignmentIdOrderBySubmittedAtDescIdDesc(
+                studentId, assignmentId);
+        assertEquals(1, rows.size(), "submission rows");
+        Submission submission = rows.get(0);
+
+        List<SubmissionVersion> versions = versionRepository.findBySubmissionIdOrderByVersionDesc(submission.getId());
+        assertEquals(Math.min(UPLOADS, retainVersions), versions.size(), "retained versions");
+        assertEquals(UPLOADS, versions.get(0).getVersion(), "latest version number");
+        assertEquals(submission.getBlobDigest(), versions.get(0).getBlobDigest());
+
+        // Each retained version holds exactly one reference; pruned uploads hold none
+        Set<String> retained = versions.stream().map(SubmissionVersion::getBlobDigest).collect(Collectors.toSet());
+        for (String digest : digests) {
+            FileBlob blob = blobRepository.findByDigest(digest).orElseThrow();
+            assertEquals(retained.contains(digest) ? 1 : 0, blob.getRefCount(), "ref count of " + digest);
+        }
+    }
+
+    @Test
+    void parallelUploadsOfSameContentCountEveryReference() throws Exception {
+        byte[] content = ("same content " + run).getBytes(StandardCharsets.UTF_8);
+        runInParallel(i -> submissionService.submit("TEST", assignmentId, studentId, "same.txt",
+                new ByteArrayInputStream(content)).getBlobDigest());
+
+        Submission submission = submissionRepository.findByStudentIdAndAssignmentId(studentId, assignmentId)
+                .orElseThrow();
+        List<SubmissionVersion> versions = versionRepository.findBySubmissionIdOrderByVersionDesc(submission.getId());
+        assertEquals(Math.min(UPLOADS, retainVersions), versions.size(), "retained versions");
+
+        FileBlob blob = blobRepository.findByDigest(submission.getBlobDigest()).orElseThrow();
+        assertEquals(versions.size(), blob.getRefCount(), "one reference per retained version");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        submissionRepository.findByStudentIdAndAssignmentId(studentId, assignmentId).ifPresent(submission -> {
+            List<SubmissionVersion> versions = versionRepository.findBySubmissionIdOrderByVersionDesc(submission.getId());
+            feedbackJobRepository.deleteBySubmissionIdIn(List.of(submission.getId()));
+            versionRepository.deleteAllInBatch(versions);
+            submissionRepository.deleteById(submission.getId());
+            versions.forEach(v -> blobStore.release(v.getBlobDigest()));
+        });
+    }
+
+    private List<String> uploadInParallel() throws Exception {
+        return runInParallel(i -> submissionService.submit("TEST", assignmentId, studentId, "v" + i + ".txt",
+                new ByteArrayInputStream(("upload " + i + " " + run).getBytes(StandardCharsets.UTF_8)))
+                .getBlobDigest());
+    }
+
+    /** Starts all uploads at once and returns the digest each one stored. */
+    private List<String> runInParallel(Upload upload) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(UPLOADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < UPLOADS; i++) {
+                int n = i;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return upload.run(n);
+                }));
+            }
+            start.countDown();
+
+            List<String> digests = new ArrayList<>();
+            for (Future<String> result : results) {
+                digests.add(result.get(120, TimeUnit.SECONDS));
+            }
+            return digests;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface Upload {
+        String run(int n) throws Exception;
+    }
+}
@@ -0,0 +1,412 @@
+package com.university.portal.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the backend against an in-process S3 stand-in that checks every SigV4
+ * signature independently, header and presigned alike, and rejects requests
+ * whose signature does not match with 403 as S3 would.
+ */
+class S3StorageBackendTest {
+
+    private static final String BUCKET = "portal";
+    private static final String ACCESS_KEY = "test-access";
+    private static final String SECRET_KEY = "test-secret";
+    private static final String REGION = "eu-west-1";
+
+    private FakeS3 s3;
+    private S3StorageBackend backend;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3 = new FakeS3();
+        backend = new S3StorageBackend(s3.endpoint() + "/", BUCKET, REGION, ACCESS_KEY, SECRET_KEY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3.stop();
+    }
+
+    @Test
+    void putGetHeadAndDeleteRoundTrip() throws IOException {
+        Path staged = Files.createTempFile("s3-test", ".part");
+        Files.writeString(staged, "hello object");
+
+        backend.putFile("blobs/ab/cd/abcd", staged);
+
+        assertFalse(Files.exists(staged), "staged file consumed");
+        assertTrue(backend.exists("blobs/ab/cd/abcd"));
+        assertEquals(12, backend.size("blobs/ab/cd/abcd"));
+        try (InputStream in = backend.get("blobs/ab/cd/abcd")) {
+            assertEquals("hello object", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        backend.delete("blobs/ab/cd/abcd");
+        assertFalse(backend.exists("blobs/ab/cd/abcd"));
+        assertTrue(s3.rejected.isEmpty(), s3.rejected.toString());
+    }
+
+    @Test
+    void missingObjectsAreReportedNotThrown() throws IOException {
+        assertFalse(backend.exists("blobs/00/00/missing"));
+        assertThrows(IOException.class, () -> backend.size("blobs/00/00/missing"));
+        assertThrows(IOException.class, () -> backend.get("blobs/00/00/missing"));
+        backend.delete("blobs/00/00/missing"); // already gone is fine
+        assertTrue(s3.rejected.isEmpty(), s3.rejected.toString());
+    }
+
+    @Test
+    void keysNeedingEscapesAreSignedAsSent() throws IOException {
+        Path staged = Files.createTempFile("s3-test", ".part");
+        Files.writeString(staged, "x");
+
+        backend.putFile("legacy/My Report (final)+1.pdf", staged);
+
+        assertTrue(backend.exists("legacy/My Report (final)+1.pdf"));
+        assertTrue(s3.rejected.isEmpty(), s3.rejected.toString());
+    }
+
+    @Test
+    void wrongSecretIsRejected() {
+        S3StorageBackend wrong = new S3StorageBackend(s3.endpoint(), BUCKET, REGION, ACCESS_KEY, "not-the-secret");
+
+        assertThrows(IOException.class, () -> wrong.exists("blobs/00/00/any"));
+        assertEquals(1, s3.rejected.size());
+    }
+
+    @Test
+    void presignedUrlDownloadsWithoutCredentials() throws Exception {
+        Path staged = Files.createTempFile("s3-test", ".part");
+        Files.writeString(staged, "presigned body");
+        backend.putFile("blobs/12/34/1234", staged);
+
+        URI url = backend.presignedGetUrl("blobs/12/34/1234", "essay \"v2\".txt", Duration.ofMinutes(5)).orElseThrow();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(url).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode(), response.body());
+        assertEquals("presigned body", response.body());
+        assertTrue(url.getRawQuery().contains("X-Amz-Expires=300"));
+        assertTrue(s3.rejected.isEmpty(), s3.rejected.toString());
+
+        URI tampered = URI.create(url.toString().replace("X-Amz-Expires=300", "X-Amz-Expires=9999"));
+        assertEquals(403, HttpClient.newHttpClient().send(HttpRequest.newBuilder(tampered).GET().build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    @Test
+    void multipartUploadAssemblesPartsInOrder() throws IOException {
+        String key = "uploads/u-1";
+        String uploadId = backend.createMultipart(key);
+
+        byte[] first = "first part|".getBytes(StandardCharsets.UTF_8);
+        byte[] second = "second part".getBytes(StandardCharsets.UTF_8);
+        String etag1 = backend.putPart(key, uploadId, 1, new ByteArrayInputStream(first), first.length);
+        String etag2 = backend.putPart(key, uploadId, 2, new ByteArrayInputStream(second), second.length);
+        assertFalse(backend.exists(key), "not visible before completion");
+
+        backend.completeMultipart(key, uploadId, List.of(etag1, etag2));
+
+        try (InputStream in = backend.get(key)) {
+            assertEquals("first part|second part", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(s3.rejected.isEmpty(), s3.rejected.toString());
+    }
+
+    @Test
+    void completingWithStaleEtagFails() throws IOException {
+        String key = "uploads/u-2";
+        String uploadId = backend.createMultipart(key);
+        backend.putPart(key, uploadId, 1, new ByteArrayInputStream(new byte[] { 1 }), 1);
+
+        // The stand-in answers 200 with an <Error> body, as S3 can
+        assertThrows(IOException.class, () -> backend.completeMultipart(key, uploadId, List.of("\"stale\"")));
+    }
+
+    @Test
+    void abortDiscardsPartsAndIgnoresUnknownUploads() throws IOException {
+        String key = "uploads/u-3";
+        String uploadId = backend.createMultipart(key);
+        backend.putPart(key, uploadId, 1, new ByteArrayInputStream(new byte[] { 1, 2 }), 2);
+
+        backend.abortMultipart(key, uploadId);
+        backend.abortMultipart(key, uploadId);
+
+        assertThrows(IOException.class, () -> backend.completeMultipart(key, uploadId, List.of("\"1-2\"")));
+        assertTrue(s3.rejected.isEmpty(), s3.rejected.toString());
+    }
+
+    @Test
+    void copyIsServerSideAndSignsCopySource() throws IOException {
+        Path staged = Files.createTempFile("s3-test", ".part");
+        Files.writeString(staged, "copied");
+        backend.putFile("uploads/source file", staged);
+
+        backend.copy("uploads/source file", "blobs/aa/bb/aabb");
+
+        try (InputStream in = backend.get("blobs/aa/bb/aabb")) {
+            assertEquals("copied", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(backend.exists("uploads/source file"));
+        assertTrue(s3.rejected.isEmpty(), s3.rejected.toString());
+    }
+
+    /** Just enough of the S3 REST API, keyed by raw request path. */
+    private static final class FakeS3 {
+
+        private static final Pattern AUTHORIZATION = Pattern.compile(
+                "AWS4-HMAC-SHA256 Credential=([^,]+), SignedHeaders=([^,]+), Signature=([0-9a-f]+)");
+        private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+        final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        final Map<String, SortedMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        final List<String> rejected = Collections.synchronizedList(new ArrayList<>());
+        private final HttpServer server;
+        private int nextUpload;
+
+        FakeS3() throws IOException {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/", exchange -> {
+                try (exchange) {
+                    handle(exchange);
+                }
+            });
+            server.start();
+        }
+
+        String endpoint() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getRawPath();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            String problem = checkSignature(exchange, method, path, query);
+            if (problem != null) {
+                rejected.add(method + " " + path + ": " + problem);
+                respond(exchange, 403, "<Error><Code>SignatureDoesNotMatch</Code></Error>");
+                return;
+            }
+
+            String uploadId = query.get("uploadId");
+            String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+            if (method.equals("POST") && query.containsKey("uploads")) {
+                String id = "upload-" + (++nextUpload);
+                uploads.put(id, new TreeMap<>());
+                respond(exchange, 200, "<InitiateMultipartUploadResult><UploadId>" + id
+                        + "</UploadId></InitiateMultipartUploadResult>");
+            } else if (method.equals("PUT") && uploadId != null) {
+                SortedMap<Integer, byte[]> parts = uploads.get(uploadId);
+                if (parts == null) {
+                    respond(exchange, 404, "<Error><Code>NoSuchUpload</Code></Error>");
+                    return;
+                }
+                int partNumber = Integer.parseInt(query.get("partNumber"));
+                parts.put(partNumber, body);
+                exchange.getResponseHeaders().set("ETag", etag(partNumber, body));
+                respond(exchange, 200, "");
+            } else if (method.equals("POST") && uploadId != null) {
+                SortedMap<Integer, byte[]> parts = uploads.get(uploadId);
+                if (parts == null) {
+                    respond(exchange, 404, "<Error><Code>NoSuchUpload</Code></Error>");
+                    return;
+                }
+                StringBuilder expected = new StringBuilder("<CompleteMultipartUpload>");
+                ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+                parts.forEach((n, bytes) -> {
+                    expected.append("<Part><PartNumber>").append(n).append("</PartNumber><ETag>")
+                            .append(etag(n, bytes)).append("</ETag></Part>");
+                    assembled.writeBytes(bytes);
+                });
+                expected.append("</CompleteMultipartUpload>");
+                if (!expected.toString().equals(new String(body, StandardCharsets.UTF_8))) {
+                    respond(exchange, 200, "<Error><Code>InvalidPart</Code></Error>");
+                    return;
+                }
+                uploads.remove(uploadId);
+                objects.put(path, assembled.toByteArray());
+                respond(exchange, 200, "<CompleteMultipartUploadResult/>");
+            } else if (method.equals("DELETE") && uploadId != null) {
+                respond(exchange, uploads.remove(uploadId) != null ? 204 : 404, null);
+            } else if (method.equals("PUT") && copySource != null) {
+                byte[] source = objects.get(copySource);
+                if (source == null) {
+                    respond(exchange, 404, "<Error><Code>NoSuchKey</Code></Error>");
+                    return;
+                }
+                objects.put(path, source.clone());
+                respond(exchange, 200, "<CopyObjectResult/>");
+            } else if (method.equals("PUT")) {
+                objects.put(path, body);
+                respond(exchange, 200, "");
+            } else if (method.equals("DELETE")) {
+                objects.remove(path);
+                respond(exchange, 204, null);
+            } else if (!objects.containsKey(path)) {
+                respond(exchange, 404, method.equals("HEAD") ? null : "<Error><Code>NoSuchKey</Code></Error>");
+            } else if (method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Content-Length", String.valueOf(objects.get(path).length));
+                sendEmpty(exchange, 200);
+            } else {
+                byte[] content = objects.get(path);
+                exchange.sendResponseHeaders(200, content.length);
+                exchange.getResponseBody().write(content);
+            }
+        }
+
+        /** Recomputes the signature from the request as received; null if it matches. */
+        private String checkSignature(HttpExchange exchange, String method, String path, Map<String, String> query) {
+            String credential;
+            String signedHeaders;
+            String signature;
+            String amzDate;
+            String payloadHash;
+            SortedMap<String, String> signedQuery = new TreeMap<>(query);
+
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (authorization != null) {
+                Matcher m = AUTHORIZATION.matcher(authorization);
+                if (!m.matches())
+                    return "malformed Authorization";
+                credential = m.group(1);
+                signedHeaders = m.group(2);
+                signature = m.group(3);
+                amzDate = exchange.getRequestHeaders().getFirst("x-amz-date");
+                payloadHash = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+                for (String name : exchange.getRequestHeaders().keySet()) {
+                    String lower = name.toLowerCase(Locale.ROOT);
+                    if (lower.startsWith("x-amz-") && !Arrays.asList(signedHeaders.split(";")).contains(lower))
+                        return "unsigned header " + lower;
+                }
+            } else {
+                signature = signedQuery.remove("X-Amz-Signature");
+                credential = query.get("X-Amz-Credential");
+                signedHeaders = query.get("X-Amz-SignedHeaders");
+                amzDate = query.get("X-Amz-Date");
+                payloadHash = "UNSIGNED-PAYLOAD";
+                if (signature == null || credential == null || signedHeaders == null || amzDate == null)
+                    return "no credentials";
+                LocalDateTime expires = LocalDateTime.parse(amzDate, AMZ_DATE)
+                        .plusSeconds(Long.parseLong(query.get("X-Amz-Expires")));
+                if (expires.isBefore(LocalDateTime.now(ZoneOffset.UTC)))
+                    return "expired";
+            }
+
+            String[] scope = credential.split("/", 2);
+            if (!ACCESS_KEY.equals(scope[0]))
+                return "unknown access key";
+
+            StringBuilder canonicalHeaders = new StringBuilder();
+            for (String name : signedHeaders.split(";")) {
+                String value = exchange.getRequestHeaders().getFirst(name);
+                if (value == null)
+                    return "signed header " + name + " missing";
+                canonicalHeaders.append(name).append(':').append(value.trim()).append('\n');
+            }
+            StringJoiner canonicalQuery = new StringJoiner("&");
+            signedQuery.forEach((k, v) -> canonicalQuery.add(encode(k) + "=" + encode(v)));
+
+            String canonicalRequest = method + "\n" + path + "\n" + canonicalQuery + "\n" + canonicalHeaders + "\n"
+                    + signedHeaders + "\n" + payloadHash;
+            try {
+                String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope[1] + "\n"
+                        + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                                .digest(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+                byte[] key = ("AWS4" + SECRET_KEY).getBytes(StandardCharsets.UTF_8);
+                for (String part : scope[1].split("/")) {
+                    key = hmac(key, part);
+                }
+                String expected = HexFormat.of().formatHex(hmac(key, stringToSign));
+                return expected.equals(signature) ? null : "signature mismatch";
+            } catch (GeneralSecurityException e) {
+                return e.toString();
+            }
+        }
+
+        private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            if (bytes.length == 0 || exchange.getRequestMethod().equals("HEAD")) {
+                sendEmpty(exchange, status);
+                return;
+            }
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+
+        // The JDK server may drop a kept-alive connection after a bodiless response, so say so up front
+        private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+            exchange.getResponseHeaders().set("Connection", "close");
+            exchange.sendResponseHeaders(status, -1);
+        }
+
+        private static String etag(int partNumber, byte[] bytes) {
+            return "\"" + partNumber + "-" + bytes.length + "\"";
+        }
+
+        private static Map<String, String> parseQuery(String rawQuery) {
+            Map<String, String> query = new HashMap<>();
+            if (rawQuery == null || rawQuery.isEmpty())
+                return query;
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                String name = eq < 0 ? pair : pair.substring(0, eq);
+                String value = eq < 0 ? "" : pair.substring(eq + 1);
+                query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+            return query;
+        }
+
+        private static String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8)
+                    .replace("+", "%20").replace("*", "%2A").replace("%7E", "~");
+        }
+
+        private static byte[] hmac(byte[] key, String data) throws GeneralSecurityException {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
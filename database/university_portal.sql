@@ -66,9 +66,123 @@ CREATE TABLE IF NOT EXISTS submissions (
     course_id VARCHAR(255) NOT NULL,
     file_url VARCHAR(255),
     file_name VARCHAR(255),
+    blob_digest VARCHAR(64),
     status ENUM('PENDING', 'SUBMITTED', 'EVALUATED') NOT NULL DEFAULT 'SUBMITTED',
     score INT,
-    submitted_at DATETIME DEFAULT CURRENT_TIMESTAMP
+    submitted_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    UNIQUE KEY uk_submissions_student_assignment (student_id, assignment_id)
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: submission_versions (every upload of a submission, newest N retained)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS submission_versions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    submission_id BIGINT NOT NULL,
+    version INT NOT NULL,
+    blob_digest VARCHAR(64) NOT NULL,
+    file_name VARCHAR(255),
+    size BIGINT NOT NULL,
+    submitted_at DATETIME(6),
+    UNIQUE KEY uk_submission_versions_submission_version (submission_id, version)
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: archived_files (submitted files of archived terms; each holds a blob reference)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS archived_files (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    term_code VARCHAR(255) NOT NULL,
+    submission_id BIGINT NOT NULL,
+    student_id VARCHAR(255),
+    version INT NOT NULL,
+    blob_digest VARCHAR(64) NOT NULL,
+    file_name VARCHAR(255),
+    size BIGINT NOT NULL,
+    submitted_at DATETIME(6),
+    archived_at DATETIME(6),
+    UNIQUE KEY uk_archived_files_submission_version (submission_id, version)
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: grade_stats (score aggregates per assignment; assignment_id 0 = whole course)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS grade_stats (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    course_id VARCHAR(255) NOT NULL,
+    assignment_id BIGINT NOT NULL,
+    score_count INT NOT NULL,
+    score_sum BIGINT NOT NULL,
+    score_sum_squares BIGINT NOT NULL,
+    histogram VARBINARY(404) NOT NULL,
+    updated_at DATETIME(6),
+    UNIQUE KEY uk_grade_stats_course_assignment (course_id, assignment_id)
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: file_blobs (content-addressed upload store, one row per distinct file)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS file_blobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    digest VARCHAR(64) NOT NULL UNIQUE,
+    size BIGINT NOT NULL,
+    crc32 BIGINT,
+    storage_path VARCHAR(512) NOT NULL,
+    encoding VARCHAR(16),
+    ref_count INT NOT NULL DEFAULT 0,
+    created_at DATETIME(6),
+    updated_at DATETIME(6)
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: extracted_texts (normalised text of a blob, extracted once, stored deflated under texts/)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS extracted_texts (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    digest VARCHAR(64) NOT NULL,
+    format_version INT NOT NULL,
+    storage_path VARCHAR(512) NOT NULL,
+    char_count BIGINT NOT NULL,
+    word_count BIGINT NOT NULL,
+    compressed_size BIGINT NOT NULL,
+    truncated BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at DATETIME(6),
+    UNIQUE KEY uk_extracted_texts_digest (digest)
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: upload_sessions (resumable chunked uploads, submission created on commit)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    upload_id VARCHAR(36) NOT NULL UNIQUE,
+    course_id VARCHAR(255) NOT NULL,
+    assignment_id BIGINT NOT NULL,
+    student_id VARCHAR(255) NOT NULL,
+    file_name VARCHAR(255),
+    total_size BIGINT NOT NULL,
+    received_bytes BIGINT NOT NULL DEFAULT 0,
+    part_path VARCHAR(512) NOT NULL,
+    multipart_id VARCHAR(1024),
+    part_etags JSON,
+    status ENUM('OPEN', 'COMMITTED') NOT NULL DEFAULT 'OPEN',
+    submission_id BIGINT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6)
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: academic_terms (closed terms are archived out of attendance/submissions)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS academic_terms (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    code VARCHAR(255) NOT NULL UNIQUE,
+    name VARCHAR(255),
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    status ENUM('OPEN', 'CLOSED', 'ARCHIVED') NOT NULL DEFAULT 'OPEN',
+    archived_at DATETIME(6)
 );
 
 -- ─────────────────────────────────────────────────────────
@@ -81,7 +195,63 @@ CREATE TABLE IF NOT EXISTS attendance (
     student_name VARCHAR(255),
     faculty_id VARCHAR(255),
     date DATE NOT NULL,
-    status VARCHAR(255) NOT NULL
+    status VARCHAR(255) NOT NULL,
+    UNIQUE KEY uk_attendance_course_student_date (course_id, student_id, date),
+    INDEX idx_attendance_course_date (course_id, date)
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: attendance_summary (per student/course counters, rebuildable from attendance)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS attendance_summary (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    student_id VARCHAR(255) NOT NULL,
+    course_id VARCHAR(255) NOT NULL,
+    total_classes INT NOT NULL DEFAULT 0,
+    present_count INT NOT NULL DEFAULT 0,
+    absent_count INT NOT NULL DEFAULT 0,
+    UNIQUE KEY uk_attendance_summary_student_course (student_id, course_id)
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: attendance_sessions / attendance_roster_slots (attendance.storage=bitmap)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS attendance_sessions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    course_id VARCHAR(255) NOT NULL,
+    session_date DATE NOT NULL,
+    faculty_id VARCHAR(255),
+    marked_bitmap VARBINARY(8193) NOT NULL,
+    present_bitmap VARBINARY(8193) NOT NULL,
+    bitmap_format INT NOT NULL DEFAULT 0,
+    marked_count INT NOT NULL,
+    present_count INT NOT NULL,
+    UNIQUE KEY uk_attendance_sessions_course_date (course_id, session_date)
+);
+
+CREATE TABLE IF NOT EXISTS attendance_roster_slots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    course_id VARCHAR(255) NOT NULL,
+    student_id VARCHAR(255) NOT NULL,
+    slot INT NOT NULL,
+    UNIQUE KEY uk_roster_slots_course_student (course_id, student_id),
+    UNIQUE KEY uk_roster_slots_course_slot (course_id, slot)
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: attendance_shortages (nightly report, one generation per generated_at)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS attendance_shortages (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    course_id VARCHAR(255) NOT NULL,
+    student_id VARCHAR(255) NOT NULL,
+    student_name VARCHAR(255),
+    total_classes INT NOT NULL,
+    present_count INT NOT NULL,
+    percentage DOUBLE NOT NULL,
+    threshold DOUBLE NOT NULL,
+    generated_at DATETIME(6) NOT NULL,
+    INDEX idx_attendance_shortages_generated_course (generated_at, course_id)
 );
 
 -- ─────────────────────────────────────────────────────────
@@ -95,7 +265,50 @@ CREATE TABLE IF NOT EXISTS ai_feedback (
     originality_score INT,
     overall_score INT,
     summary VARCHAR(2000),
-    suggestions VARCHAR(3000)
+    suggestions JSON
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: feedback_jobs (durable queue for server-side feedback generation, one row per submission)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS feedback_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    submission_id BIGINT NOT NULL,
+    blob_digest VARCHAR(64),
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000),
+    next_attempt_at DATETIME(6) NOT NULL,
+    locked_by VARCHAR(64),
+    locked_at DATETIME(6),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    UNIQUE KEY uk_feedback_jobs_submission (submission_id),
+    INDEX idx_feedback_jobs_status_next_attempt (status, next_attempt_at)
+);
+
+-- ─────────────────────────────────────────────────────────
+-- TABLE: submission_signatures / submission_lsh_buckets (MinHash near-duplicate index)
+-- ─────────────────────────────────────────────────────────
+CREATE TABLE IF NOT EXISTS submission_signatures (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    submission_id BIGINT NOT NULL,
+    assignment_id BIGINT NOT NULL,
+    student_id VARCHAR(255) NOT NULL,
+    blob_digest VARCHAR(64),
+    signature VARBINARY(512) NOT NULL,
+    created_at DATETIME(6),
+    UNIQUE KEY uk_submission_signatures_submission (submission_id),
+    INDEX idx_submission_signatures_assignment (assignment_id)
+);
+
+CREATE TABLE IF NOT EXISTS submission_lsh_buckets (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    assignment_id BIGINT NOT NULL,
+    bucket_key BIGINT NOT NULL,
+    submission_id BIGINT NOT NULL,
+    INDEX idx_submission_lsh_buckets_assignment_key (assignment_id, bucket_key),
+    INDEX idx_submission_lsh_buckets_submission (submission_id)
 );
 
 -- ─────────────────────────────────────────────────────────
@@ -38,6 +38,7 @@ export default function FacultySubmissions() {
     const [courses, setCourses] = useState(fallbackCourses);
     const [selectedCourse, setSelectedCourse] = useState('');
     const [submissions, setSubmissions] = useState([]);
+    const [feedbackById, setFeedbackById] = useState({});
     const [loading, setLoading] = useState(true);
     const [subsLoading, setSubsLoading] = useState(false);
     const [feedbackModal, setFeedbackModal] = useState({ show: false, data: null, loading: false });
@@ -93,9 +94,24 @@ export default function FacultySubmissions() {
             })
             .catch(() => setSubmissions(fallbackSubmissions))
             .finally(() => setSubsLoading(false));
+
+        // Load the whole course's feedback at once instead of one request per row
+        setFeedbackById({});
+        facultyAPI.getCourseFeedback(selectedCourse)
+            .then((res) => {
+                const byId = {};
+                (res.data || []).forEach((f) => { byId[f.submissionId] = f; });
+                setFeedbackById(byId);
+            })
+            .catch(() => setFeedbackById({}));
     }, [selectedCourse]);
 
     const viewFeedback = (submissionId) => {
+        const cached = feedbackById[submissionId];
+        if (cached) {
+            setFeedbackModal({ show: true, data: cached, loading: false });
+            return;
+        }
         setFeedbackModal({ show: true, data: null, loading: true });
         facultyAPI.getFeedback(submissionId)
             .then((res) => {
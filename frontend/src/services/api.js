@@ -109,6 +109,9 @@ export const facultyAPI = {
 
     /** GET /api/ai-feedback/submission/{submissionId} – AI feedback for a submission */
     getFeedback: (submissionId) => api.get(`/ai-feedback/submission/${submissionId}`),
+
+    /** GET /api/ai-feedback/course/{courseId} – AI feedback for every submission of a course */
+    getCourseFeedback: (courseId) => api.get(`/ai-feedback/course/${courseId}`),
 };
 
 // ──────────────────────────────────────────